@@ -0,0 +1,103 @@
+package com.dieharddev.toolbox;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Throughput of each {@link CompressionCodec} on JSON-like text, in memory so
+ * disk speed does not blur the comparison. ZSTD needs zstd-jni on the class
+ * path, so it is not a default parameter; add it with
+ * {@code -p compressionCodec=ZSTD}, setup fails when zstd-jni is missing.
+ * {@link #compress(CompressedSize)} also reports originalBytes and
+ * compressedBytes, their quotient is the compression ratio.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+	@Param({ "GZIP", "BZIP2", "XZ", "LZ4" })
+	public CompressionCodec compressionCodec;
+
+	@Param({ "65536", "4194304" })
+	public int dataSize;
+
+	private byte[] data;
+	private byte[] compressedData;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class CompressedSize {
+		public long originalBytes;
+		public long compressedBytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			originalBytes = 0;
+			compressedBytes = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		if (compressionCodec.isAvailable() == false) {
+			throw new IllegalStateException(compressionCodec + " is not available, add its library to the class path");
+		}
+		StringBuilder stringBuilder = new StringBuilder(dataSize);
+		for (int index = 0; stringBuilder.length() < dataSize; index++) {
+			stringBuilder.append("{\"id\":").append(index).append(",\"name\":\"record-").append(index % 997)
+					.append("\",\"active\":").append((index % 3) == 0).append("}\n");
+		}
+		data = stringBuilder.substring(0, dataSize).getBytes(StandardCharsets.UTF_8);
+		compressedData = compressData();
+	}
+
+	@Benchmark
+	public byte[] compress(CompressedSize compressedSize) throws IOException {
+		byte[] compressed = compressData();
+		compressedSize.originalBytes += data.length;
+		compressedSize.compressedBytes += compressed.length;
+		return compressed;
+	}
+
+	@Benchmark
+	public byte[] decompress() throws IOException {
+		try (InputStream inputStream = compressionCodec.decompress(new ByteArrayInputStream(compressedData),
+				ToolBox.FILE_BUFFER_SIZE)) {
+			return IOUtils.toByteArray(inputStream);
+		}
+	}
+
+	private byte[] compressData() throws IOException {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(data.length / 2);
+		try (OutputStream outputStream = compressionCodec.compress(byteArrayOutputStream,
+				CompressionCodec.DEFAULT_LEVEL, ToolBox.FILE_BUFFER_SIZE)) {
+			outputStream.write(data);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+}
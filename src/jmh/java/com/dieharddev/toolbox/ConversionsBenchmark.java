@@ -0,0 +1,96 @@
+package com.dieharddev.toolbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Boxing and unboxing {@link Conversions} between primitive arrays and wrapper
+ * lists and arrays.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionsBenchmark {
+	@Param({ "10", "100000" })
+	public int size;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+	private int[] ints;
+	private long[] longs;
+	private double[] doubles;
+	private List<Integer> integerList;
+	private List<Long> longList;
+	private List<Double> doubleList;
+
+	@Setup
+	public void setUp() {
+		ints = new int[size];
+		longs = new long[size];
+		doubles = new double[size];
+		integerList = new ArrayList<Integer>(size);
+		longList = new ArrayList<Long>(size);
+		doubleList = new ArrayList<Double>(size);
+		for (int index = 0; index < size; index++) {
+			// Past the Integer cache, so boxing allocates as it does on real data
+			ints[index] = index * 1000;
+			longs[index] = index * 1000L;
+			doubles[index] = index * 0.5;
+			integerList.add(ints[index]);
+			longList.add(longs[index]);
+			doubleList.add(doubles[index]);
+		}
+	}
+
+	@Benchmark
+	public int[] toIntArray() {
+		return toolBox.toIntArray(integerList);
+	}
+
+	@Benchmark
+	public long[] toLongArray() {
+		return toolBox.toLongArray(longList);
+	}
+
+	@Benchmark
+	public double[] toDoubleArray() {
+		return toolBox.toDoubleArray(doubleList);
+	}
+
+	@Benchmark
+	public List<Integer> toIntegerList() {
+		return toolBox.toIntegerList(ints);
+	}
+
+	@Benchmark
+	public List<Long> toLongList() {
+		return toolBox.toLongList(longs);
+	}
+
+	@Benchmark
+	public List<Double> toDoubleList() {
+		return toolBox.toDoubleList(doubles);
+	}
+
+	@Benchmark
+	public Integer[] toIntegerArray() {
+		return toolBox.toIntegerArray(ints);
+	}
+}
@@ -0,0 +1,78 @@
+package com.dieharddev.toolbox;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Recursive listing of a generated tree of {@code fileCount} files, ten per
+ * directory, a quarter of them matching the pattern.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileListingBenchmark {
+	@Param({ "100", "10000" })
+	public int fileCount;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+	private File directory;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("FileListingBenchmark").toFile();
+		for (int index = 0; index < fileCount; index++) {
+			File subdirectory = new File(directory, "d" + (index / 100) + "/e" + ((index / 10) % 10));
+			subdirectory.mkdirs();
+			String extension = ((index % 4) == 0) ? ".json" : ".txt";
+			Files.write(new File(subdirectory, "file" + index + extension).toPath(), new byte[] { 1 });
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Benchmark
+	public List<File> listFilesMatchingPattern() {
+		return toolBox.listFilesMatchingPattern(directory, ".*\\.json", true);
+	}
+
+	@Benchmark
+	public List<File> listFilesWithQuery() {
+		return toolBox.listFiles(directory, FileListingQuery.builder().includeGlob("*.json").build());
+	}
+
+	@Benchmark
+	public long streamFilesMatchingPattern() {
+		try (Stream<Path> paths = toolBox.streamFilesMatchingPattern(directory.toPath(), ".*\\.json", true)) {
+			return paths.count();
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.dieharddev.toolbox;
+
+import java.lang.reflect.Type;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ *
+ * JSON helpers: the shared {@link GsonRegistry} instances against building a
+ * Gson per call, and the GitLab date adapter against a synchronized
+ * {@link SimpleDateFormat}, the usual pre-java.time way of sharing one.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+	private static final Type recordListType = new TypeToken<List<JsonRecord>>() {
+	}.getType();
+
+	@Param({ "10", "1000" })
+	public int size;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+	private final SimpleDateFormat simpleDateFormat = newSimpleDateFormat();
+	private List<JsonRecord> records;
+	private String recordsJson;
+	private String dateJson;
+	private Date date;
+
+	public static class JsonRecord {
+		String name;
+		long id;
+		double score;
+		List<String> tags;
+		Date created;
+	}
+
+	@Setup
+	public void setUp() {
+		records = new ArrayList<JsonRecord>(size);
+		for (int index = 0; index < size; index++) {
+			JsonRecord jsonRecord = new JsonRecord();
+			jsonRecord.name = "record-" + index;
+			jsonRecord.id = index;
+			jsonRecord.score = index * 0.5;
+			jsonRecord.tags = toolBox.toList("alpha", "beta", "gamma");
+			jsonRecord.created = new Date(1_600_000_000_000L + index * 1000L);
+			records.add(jsonRecord);
+		}
+		recordsJson = toolBox.toJson(records);
+		date = new Date(1_469_633_440_864L);
+		dateJson = GsonRegistry.getGitLabDateGson().toJson(date);
+	}
+
+	@Benchmark
+	public String toJsonRegistry() {
+		return toolBox.toJson(records);
+	}
+
+	@Benchmark
+	public String toJsonNewGsonPerCall() {
+		return new GsonBuilder().create().toJson(records);
+	}
+
+	@Benchmark
+	public List<JsonRecord> fromJsonRegistry() {
+		return toolBox.fromJson(recordsJson, recordListType);
+	}
+
+	@Benchmark
+	public List<JsonRecord> fromJsonNewGsonPerCall() {
+		Gson gson = new GsonBuilder().create();
+		return gson.fromJson(recordsJson, recordListType);
+	}
+
+	@Benchmark
+	public String prettyJsonRegistry() {
+		return toolBox.toPrettyJson(records);
+	}
+
+	@Benchmark
+	public String formatDateAdapter() {
+		return GsonRegistry.getGitLabDateGson().toJson(date);
+	}
+
+	@Benchmark
+	public Date parseDateAdapter() {
+		return GsonRegistry.getGitLabDateGson().fromJson(dateJson, Date.class);
+	}
+
+	@Benchmark
+	public String formatDateSynchronizedSimpleDateFormat() {
+		synchronized (simpleDateFormat) {
+			return simpleDateFormat.format(date);
+		}
+	}
+
+	@Benchmark
+	public Date parseDateSynchronizedSimpleDateFormat() throws ParseException {
+		synchronized (simpleDateFormat) {
+			return simpleDateFormat.parse("2016-07-27T15:30:40.864Z");
+		}
+	}
+
+	private static SimpleDateFormat newSimpleDateFormat() {
+		SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+		simpleDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return simpleDateFormat;
+	}
+}
@@ -0,0 +1,138 @@
+package com.dieharddev.toolbox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ *
+ * {@link ToolBox#getList} and {@link ToolBox#queryForList} against an
+ * in-memory H2 database, so the numbers are the helpers' own overhead rather
+ * than network or disk time.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlBenchmark {
+	private static final String SELECT_ITEMS = "SELECT ID, NAME, PRICE FROM ITEMS WHERE ID < ?";
+
+	@Param({ "10", "10000" })
+	public int rowCount;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+	private HikariDataSource hikariDataSource;
+	private Object[] args;
+
+	public static class Item {
+		final long id;
+		final String name;
+		final double price;
+
+		Item(long id, String name, double price) {
+			super();
+			this.id = id;
+			this.name = name;
+			this.price = price;
+		}
+	}
+
+	@Setup
+	public void setUp() throws SQLException {
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setJdbcUrl("jdbc:h2:mem:SqlBenchmark" + rowCount + ";DB_CLOSE_DELAY=-1");
+		hikariConfig.setMaximumPoolSize(16);
+		hikariDataSource = new HikariDataSource(hikariConfig);
+		try (Connection connection = hikariDataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS ITEMS");
+			statement.execute("CREATE TABLE ITEMS (ID BIGINT PRIMARY KEY, NAME VARCHAR(64), PRICE DOUBLE)");
+			try (PreparedStatement preparedStatement = connection
+					.prepareStatement("INSERT INTO ITEMS (ID, NAME, PRICE) VALUES (?, ?, ?)")) {
+				for (int index = 0; index < rowCount; index++) {
+					preparedStatement.setLong(1, index);
+					preparedStatement.setString(2, "item-" + index);
+					preparedStatement.setDouble(3, index * 1.25);
+					preparedStatement.addBatch();
+				}
+				preparedStatement.executeBatch();
+			}
+		}
+		args = new Object[] { rowCount };
+		toolBox.registerNamedQuery("SqlBenchmark.items", SELECT_ITEMS);
+	}
+
+	@TearDown
+	public void tearDown() {
+		hikariDataSource.close();
+	}
+
+	@Benchmark
+	public List<Item> getList() {
+		return toolBox.getList("SqlBenchmark.getList", SELECT_ITEMS, args, hikariDataSource, new ItemGetter());
+	}
+
+	@Benchmark
+	public List<Item> getListPresized() {
+		return toolBox.getList("SqlBenchmark.getListPresized", SELECT_ITEMS, args, hikariDataSource, 3000, rowCount,
+				new ItemGetter());
+	}
+
+	@Benchmark
+	public List<Item> getNamedList() {
+		return toolBox.getNamedList("SqlBenchmark.items", args, hikariDataSource, new ItemGetter());
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> queryForList() {
+		return toolBox.queryForList("SqlBenchmark.queryForList", SELECT_ITEMS, args, hikariDataSource);
+	}
+
+	@Benchmark
+	public List<Item> plainJdbc() throws SQLException {
+		try (Connection connection = hikariDataSource.getConnection();
+				PreparedStatement preparedStatement = connection.prepareStatement(SELECT_ITEMS)) {
+			preparedStatement.setInt(1, rowCount);
+			List<Item> items = new ArrayList<Item>();
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				ItemGetter itemGetter = new ItemGetter();
+				while (resultSet.next() == true) {
+					items.add(itemGetter.getValue(resultSet));
+				}
+			}
+			return items;
+		}
+	}
+
+	private static class ItemGetter implements ToolBox.ListGetter<Item> {
+		@Override
+		public Item getValue(ResultSet resultSet) throws SQLException {
+			return new Item(resultSet.getLong(1), resultSet.getString(2), resultSet.getDouble(3));
+		}
+	}
+}
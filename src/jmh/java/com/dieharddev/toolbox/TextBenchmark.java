@@ -0,0 +1,98 @@
+package com.dieharddev.toolbox;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ *
+ * Line splitting, joining and quoting over {@code lineCount} lines or values,
+ * with the regular expression split the line helpers used to be built on as
+ * the baseline.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+	@Param({ "10", "10000" })
+	public int lineCount;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+	private String text;
+	private List<String> values;
+	private String[] valueArray;
+
+	@Setup
+	public void setUp() {
+		StringBuilder stringBuilder = new StringBuilder();
+		values = new ArrayList<String>(lineCount);
+		for (int index = 0; index < lineCount; index++) {
+			String value = "line " + index + " of the benchmark text";
+			stringBuilder.append(value).append(((index % 3) == 0) ? "\r\n" : "\n");
+			values.add(value);
+		}
+		text = stringBuilder.toString();
+		valueArray = values.toArray(new String[] {});
+	}
+
+	@Benchmark
+	public String[] getLines() {
+		return toolBox.getLines(text);
+	}
+
+	@Benchmark
+	public String[] regexSplitBaseline() {
+		return text.split("\\r?\\n", -1);
+	}
+
+	@Benchmark
+	public void lineViews(Blackhole blackhole) {
+		Iterator<CharSequence> lineViews = LineScanner.lineViews(text);
+		while (lineViews.hasNext() == true) {
+			blackhole.consume(lineViews.next());
+		}
+	}
+
+	@Benchmark
+	public String joinIterable() {
+		return toolBox.join(values, ", ");
+	}
+
+	@Benchmark
+	public String joinWithFinalSeparator() {
+		return toolBox.join(valueArray, ", ", " and ");
+	}
+
+	@Benchmark
+	public String stringJoinBaseline() {
+		return String.join(", ", values);
+	}
+
+	@Benchmark
+	public List<String> quotedList() {
+		return toolBox.quoted(values);
+	}
+
+	@Benchmark
+	public List<String> quotedArray() {
+		return toolBox.quoted(valueArray);
+	}
+}
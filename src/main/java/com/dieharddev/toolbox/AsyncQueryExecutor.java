@@ -0,0 +1,318 @@
+package com.dieharddev.toolbox;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.Preparation;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ *
+ * Runs blocking SQL helper calls off the caller's thread, at most
+ * {@link HikariDataSource#getMaximumPoolSize()} at a time per data source, so
+ * fanned-out queries wait for a connection in our queue instead of in Hikari's.
+ *
+ * <p>
+ *
+ * Uses virtual threads with a semaphore when the JDK provides them, otherwise a
+ * fixed pool of daemon threads. At most {@value #QUEUED_QUERIES_PER_CONNECTION}
+ * queries per connection wait for their turn; beyond that the returned future
+ * fails with a {@link RejectedExecutionException}. Cancelling the returned
+ * future, or letting it time out, cancels the running JDBC statement.
+ *
+ * </p>
+ *
+ */
+public final class AsyncQueryExecutor {
+	public static final int QUEUED_QUERIES_PER_CONNECTION = 32;
+
+	private static final Map<HikariDataSource, AsyncQueryExecutor> asyncQueryExecutors //
+			= new WeakHashMap<HikariDataSource, AsyncQueryExecutor>();
+	private static final ScheduledExecutorService timeoutScheduledExecutorService //
+			= Executors.newSingleThreadScheduledExecutor(
+					NamedThreadFactory.getDaemonThreadFactory("AsyncQueryTimeout"));
+
+	private final ExecutorService executorService;
+	// Only used with virtual threads, a platform pool is bounded by its size and
+	// its queue
+	private final Semaphore permits;
+	private final Semaphore queueSlots;
+
+	public static interface QueryTask<T> {
+		/**
+		 *
+		 * @param statementGuard must be applied to the statement with
+		 *                       {@link com.jcabi.jdbc.JdbcSession#prepare(Preparation)},
+		 *                       and must wrap the query's outcome with
+		 *                       {@link StatementGuard#guard(Outcome)}
+		 *
+		 */
+		T run(StatementGuard statementGuard);
+	}
+
+	public static AsyncQueryExecutor get(HikariDataSource hikariDataSource) {
+		synchronized (asyncQueryExecutors) {
+			AsyncQueryExecutor asyncQueryExecutor = asyncQueryExecutors.get(hikariDataSource);
+			if (asyncQueryExecutor == null) {
+				asyncQueryExecutor = new AsyncQueryExecutor(hikariDataSource.getMaximumPoolSize(),
+						"AsyncQuery-" + hikariDataSource.getPoolName());
+				asyncQueryExecutors.put(hikariDataSource, asyncQueryExecutor);
+			}
+			return asyncQueryExecutor;
+		}
+	}
+
+	private AsyncQueryExecutor(int maximumConcurrency, String threadNamePrefix) {
+		this(maximumConcurrency, threadNamePrefix, newVirtualThreadPerTaskExecutor());
+	}
+
+	/**
+	 *
+	 * @param virtualThreadExecutorService bounded by semaphores like virtual
+	 *                                     threads; null for the platform pool
+	 *
+	 */
+	AsyncQueryExecutor(int maximumConcurrency, String threadNamePrefix,
+			ExecutorService virtualThreadExecutorService) {
+		super();
+		int queueCapacity = maximumConcurrency * QUEUED_QUERIES_PER_CONNECTION;
+		if (virtualThreadExecutorService != null) {
+			this.executorService = virtualThreadExecutorService;
+			this.permits = new Semaphore(maximumConcurrency, true);
+			this.queueSlots = new Semaphore(maximumConcurrency + queueCapacity);
+		} else {
+			// Rejects once the queue is full instead of piling up queries
+			ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(maximumConcurrency, maximumConcurrency, 60L,
+					TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity),
+					NamedThreadFactory.getDaemonThreadFactory(threadNamePrefix));
+			// Idle pools of unused data sources go away on their own
+			threadPoolExecutor.allowCoreThreadTimeOut(true);
+			this.executorService = threadPoolExecutor;
+			this.permits = null;
+			this.queueSlots = null;
+		}
+	}
+
+	public boolean isUsingVirtualThreads() {
+		return permits != null;
+	}
+
+	/**
+	 *
+	 * @param timeout 0 for no timeout; otherwise also set as the statement's query
+	 *                timeout, rounded up to whole seconds
+	 *
+	 */
+	public <T> CompletableFuture<T> submit(String queryNameForErrors, long timeout, TimeUnit timeUnit,
+			QueryTask<T> queryTask) {
+		QueryFuture<T> queryFuture = new QueryFuture<T>();
+		int queryTimeoutSeconds = (timeout > 0) ? (int) Math.max(1, (timeUnit.toMillis(timeout) + 999) / 1000) : 0;
+		StatementGuard statementGuard = new StatementGuard(queryFuture, queryTimeoutSeconds);
+		queryFuture.statementGuard = statementGuard;
+		if ((queueSlots != null) && (queueSlots.tryAcquire() == false)) {
+			queryFuture.completeExceptionally(
+					new RejectedExecutionException("Too many queued SQL queries for " + queryNameForErrors));
+			return queryFuture;
+		}
+		// Set by whichever comes first, the task body or the completion of a future
+		// cancelled before the body ran; that one gives the queue slot back
+		AtomicBoolean queueSlotClaimed = new AtomicBoolean();
+		try {
+			queryFuture.task = executorService.submit(new Runnable() {
+				@Override
+				public void run() {
+					if (queueSlotClaimed.compareAndSet(false, true) == false) {
+						return;
+					}
+					boolean acquired = false;
+					try {
+						if (queryFuture.isDone() == true) {
+							return;
+						}
+						if (permits != null) {
+							permits.acquire();
+							acquired = true;
+						}
+						queryFuture.complete(queryTask.run(statementGuard));
+					} catch (Throwable e) {
+						queryFuture.completeExceptionally(e);
+					} finally {
+						// Normally already released by the guarded outcome
+						statementGuard.release();
+						if (acquired == true) {
+							permits.release();
+						}
+						if (queueSlots != null) {
+							queueSlots.release();
+						}
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			if (queueSlots != null) {
+				queueSlots.release();
+			}
+			queryFuture.completeExceptionally(
+					new RejectedExecutionException("Too many queued SQL queries for " + queryNameForErrors, e));
+			return queryFuture;
+		}
+		queryFuture.whenComplete(new BiConsumer<T, Throwable>() {
+			@Override
+			public void accept(T result, Throwable throwable) {
+				// A cancelled FutureTask never runs the body and its finally
+				if ((queueSlotClaimed.compareAndSet(false, true) == true) && (queueSlots != null)) {
+					queueSlots.release();
+				}
+			}
+		});
+		if (timeout > 0) {
+			ScheduledFuture<?> timeoutFuture = timeoutScheduledExecutorService.schedule(new Runnable() {
+				@Override
+				public void run() {
+					if (queryFuture.completeExceptionally(new TimeoutException(
+							"SQL query timed out after " + timeout + " " + timeUnit + " for " + queryNameForErrors))) {
+						queryFuture.abort();
+					}
+				}
+			}, timeout, timeUnit);
+			queryFuture.whenComplete(new BiConsumer<T, Throwable>() {
+				@Override
+				public void accept(T result, Throwable throwable) {
+					timeoutFuture.cancel(false);
+				}
+			});
+		}
+		return queryFuture;
+	}
+
+	/**
+	 *
+	 * Tracks the statement of one query from preparation until its result set is
+	 * read, so a late cancel never reaches a statement or pooled connection that
+	 * has been handed back.
+	 *
+	 */
+	public static final class StatementGuard implements Preparation {
+		private final CompletableFuture<?> queryFuture;
+		private final int queryTimeoutSeconds;
+		private Statement runningStatement;
+		private boolean released;
+
+		private StatementGuard(CompletableFuture<?> queryFuture, int queryTimeoutSeconds) {
+			super();
+			this.queryFuture = queryFuture;
+			this.queryTimeoutSeconds = queryTimeoutSeconds;
+		}
+
+		@Override
+		public void prepare(PreparedStatement preparedStatement) throws SQLException {
+			if (queryTimeoutSeconds > 0) {
+				preparedStatement.setQueryTimeout(queryTimeoutSeconds);
+			}
+			synchronized (this) {
+				if (released == true) {
+					throw new SQLException("Statement guard already used");
+				}
+				runningStatement = preparedStatement;
+			}
+			if (queryFuture.isDone() == true) {
+				throw new SQLException("Query cancelled before execution");
+			}
+		}
+
+		/**
+		 *
+		 * Releases the statement as soon as the outcome has read the result set,
+		 * before jcabi closes the statement and hands back the connection.
+		 *
+		 */
+		public <T> Outcome<T> guard(Outcome<T> outcome) {
+			return new Outcome<T>() {
+				@Override
+				public T handle(ResultSet resultSet, Statement statement) throws SQLException {
+					try {
+						return outcome.handle(resultSet, statement);
+					} finally {
+						release();
+					}
+				}
+			};
+		}
+
+		synchronized void release() {
+			released = true;
+			runningStatement = null;
+		}
+
+		// Holds the lock while cancelling, so release() waits for it
+		synchronized void cancel() {
+			Statement statement = runningStatement;
+			runningStatement = null;
+			if (statement == null) {
+				return;
+			}
+			try {
+				// A failed execution is only released after jcabi closed it
+				if (statement.isClosed() == false) {
+					statement.cancel();
+				}
+			} catch (SQLException e) {
+				// The query may have finished in the meantime
+			}
+		}
+	}
+
+	private static final class QueryFuture<T> extends CompletableFuture<T> {
+		private volatile StatementGuard statementGuard;
+		private volatile Future<?> task;
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled == true) {
+				abort();
+			}
+			return cancelled;
+		}
+
+		void abort() {
+			Future<?> currentTask = task;
+			if (currentTask != null) {
+				// Never interrupt, that can leave the pooled connection unusable
+				currentTask.cancel(false);
+			}
+			StatementGuard currentStatementGuard = statementGuard;
+			if (currentStatementGuard != null) {
+				currentStatementGuard.cancel();
+			}
+		}
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			// Before Java 21, or preview features not enabled
+			return null;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package com.dieharddev.toolbox;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class BatchUpdateResult {
+	private final String queryName;
+	private final long rowCount;
+	private final long batchCount;
+	private final long commitCount;
+	/**
+	 * Rows the driver reported as changed; a statement reported as
+	 * {@link java.sql.Statement#SUCCESS_NO_INFO} counts as one row
+	 */
+	private final long updateCount;
+	/**
+	 * Statements reported as {@link java.sql.Statement#SUCCESS_NO_INFO}, e.g. by
+	 * PostgreSQL with reWriteBatchedInserts; when non-zero updateCount is a lower
+	 * bound
+	 */
+	private final long unknownUpdateCount;
+	private final long elapsedNanos;
+
+	public double getRowsPerSecond() {
+		if (elapsedNanos <= 0) {
+			return 0;
+		}
+		return rowCount * 1_000_000_000.0 / elapsedNanos;
+	}
+}
@@ -0,0 +1,104 @@
+package com.dieharddev.toolbox;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ *
+ * Thread-safe wrapper around an immutable {@link DateTimeFormatter} that can
+ * remember the last formatted millisecond. Callers formatting "now" from many
+ * threads mostly hit the same millisecond and get the cached string back.
+ *
+ * <p>
+ *
+ * Formatters made from a pattern use the default time zone at the time of each
+ * call, like {@link java.text.SimpleDateFormat} created per call did, so a
+ * later {@link java.util.TimeZone#setDefault} is honored.
+ *
+ * </p>
+ *
+ */
+public final class CachedDateFormatter {
+	private final boolean systemZone;
+	private final boolean memoize;
+	private volatile ZonedFormatter zonedFormatter;
+	private volatile FormattedMillisecond lastFormatted = new FormattedMillisecond(Long.MIN_VALUE, null, null);
+
+	public CachedDateFormatter(String pattern, boolean memoize) {
+		this(DateTimeFormatter.ofPattern(pattern), true, memoize);
+	}
+
+	/**
+	 *
+	 * @param dateTimeFormatter used as is, with its own zone
+	 *
+	 */
+	public CachedDateFormatter(DateTimeFormatter dateTimeFormatter, boolean memoize) {
+		this(dateTimeFormatter, false, memoize);
+	}
+
+	private CachedDateFormatter(DateTimeFormatter dateTimeFormatter, boolean systemZone, boolean memoize) {
+		super();
+		this.systemZone = systemZone;
+		this.memoize = memoize;
+		this.zonedFormatter = new ZonedFormatter(dateTimeFormatter.getZone(), dateTimeFormatter);
+	}
+
+	/**
+	 *
+	 * @return the formatter, with the current default time zone unless one was
+	 *         given
+	 *
+	 */
+	public DateTimeFormatter getDateTimeFormatter() {
+		if (systemZone == false) {
+			return zonedFormatter.dateTimeFormatter;
+		}
+		ZoneId zone = ZoneId.systemDefault();
+		ZonedFormatter current = zonedFormatter;
+		if (zone.equals(current.zone) == false) {
+			current = new ZonedFormatter(zone, current.dateTimeFormatter.withZone(zone));
+			zonedFormatter = current;
+		}
+		return current.dateTimeFormatter;
+	}
+
+	public String format(long epochMillis) {
+		DateTimeFormatter dateTimeFormatter = getDateTimeFormatter();
+		if (memoize == false) {
+			return dateTimeFormatter.format(Instant.ofEpochMilli(epochMillis));
+		}
+		FormattedMillisecond formatted = lastFormatted;
+		if ((formatted.epochMillis == epochMillis) && (formatted.dateTimeFormatter == dateTimeFormatter)) {
+			return formatted.text;
+		}
+		String text = dateTimeFormatter.format(Instant.ofEpochMilli(epochMillis));
+		lastFormatted = new FormattedMillisecond(epochMillis, dateTimeFormatter, text);
+		return text;
+	}
+
+	private static final class ZonedFormatter {
+		private final ZoneId zone;
+		private final DateTimeFormatter dateTimeFormatter;
+
+		ZonedFormatter(ZoneId zone, DateTimeFormatter dateTimeFormatter) {
+			super();
+			this.zone = zone;
+			this.dateTimeFormatter = dateTimeFormatter;
+		}
+	}
+
+	private static final class FormattedMillisecond {
+		private final long epochMillis;
+		private final DateTimeFormatter dateTimeFormatter;
+		private final String text;
+
+		FormattedMillisecond(long epochMillis, DateTimeFormatter dateTimeFormatter, String text) {
+			super();
+			this.epochMillis = epochMillis;
+			this.dateTimeFormatter = dateTimeFormatter;
+			this.text = text;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.dieharddev.toolbox;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Column name to position dictionary shared by every row of one result set.
+ * When a name occurs more than once the first column wins, which is what
+ * {@link java.sql.ResultSet#getObject(String)} returns as well.
+ *
+ */
+public final class ColumnIndex {
+	private final String[] columnNames;
+	private final int[] columnPositions;
+	private final Map<String, Integer> indexByName;
+
+	public static ColumnIndex of(ResultSetMetaData resultSetMetaData) throws SQLException {
+		int columnCount = resultSetMetaData.getColumnCount();
+		List<String> columnNames = new ArrayList<String>(columnCount);
+		List<Integer> columnPositions = new ArrayList<Integer>(columnCount);
+		Map<String, Integer> indexByName = new HashMap<String, Integer>();
+		for (int position = 1; position <= columnCount; position++) {
+			String columnName = resultSetMetaData.getColumnName(position);
+			if (indexByName.containsKey(columnName) == false) {
+				indexByName.put(columnName, columnNames.size());
+				columnNames.add(columnName);
+				columnPositions.add(position);
+			}
+		}
+		int[] positions = new int[columnPositions.size()];
+		for (int index = 0; index < positions.length; index++) {
+			positions[index] = columnPositions.get(index);
+		}
+		return new ColumnIndex(columnNames.toArray(new String[columnNames.size()]), positions, indexByName);
+	}
+
+	private ColumnIndex(String[] columnNames, int[] columnPositions, Map<String, Integer> indexByName) {
+		super();
+		this.columnNames = columnNames;
+		this.columnPositions = columnPositions;
+		this.indexByName = indexByName;
+	}
+
+	public int size() {
+		return columnNames.length;
+	}
+
+	/**
+	 *
+	 * @return index of the column, or -1 when there is no such column
+	 *
+	 */
+	public int indexOf(Object columnName) {
+		Integer index = indexByName.get(columnName);
+		if (index == null) {
+			return -1;
+		}
+		return index;
+	}
+
+	public String getColumnName(int index) {
+		return columnNames[index];
+	}
+
+	/**
+	 *
+	 * @return the 1-based JDBC column position for the column at index
+	 *
+	 */
+	public int getColumnPosition(int index) {
+		return columnPositions[index];
+	}
+
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(Arrays.asList(columnNames));
+	}
+}
@@ -0,0 +1,187 @@
+package com.dieharddev.toolbox;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.jcabi.jdbc.Outcome;
+
+/**
+ *
+ * Column-oriented query result for numeric analytics. Integer columns are held
+ * as {@code long[]}, floating point columns as {@code double[]} and everything
+ * else as {@code Object[]}; SQL NULLs are tracked separately per column.
+ *
+ */
+public final class ColumnarResult {
+	public enum ColumnType {
+		LONG, DOUBLE, OBJECT;
+	}
+
+	private final ColumnIndex columnIndex;
+	private final ColumnType[] columnTypes;
+	private final Object[] columns;
+	private final BitSet[] nulls;
+	private final int rowCount;
+
+	private ColumnarResult(ColumnIndex columnIndex, ColumnType[] columnTypes, Object[] columns, BitSet[] nulls,
+			int rowCount) {
+		super();
+		this.columnIndex = columnIndex;
+		this.columnTypes = columnTypes;
+		this.columns = columns;
+		this.nulls = nulls;
+		this.rowCount = rowCount;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public List<String> getColumnNames() {
+		return columnIndex.getColumnNames();
+	}
+
+	public ColumnType getColumnType(String columnName) {
+		return columnTypes[getIndex(columnName)];
+	}
+
+	public long[] getLongColumn(String columnName) {
+		return (long[]) getColumn(columnName, ColumnType.LONG);
+	}
+
+	public double[] getDoubleColumn(String columnName) {
+		return (double[]) getColumn(columnName, ColumnType.DOUBLE);
+	}
+
+	public Object[] getObjectColumn(String columnName) {
+		return (Object[]) getColumn(columnName, ColumnType.OBJECT);
+	}
+
+	public boolean isNull(String columnName, int row) {
+		return nulls[getIndex(columnName)].get(row);
+	}
+
+	private Object getColumn(String columnName, ColumnType columnType) {
+		int index = getIndex(columnName);
+		if (columnTypes[index] != columnType) {
+			throw new IllegalArgumentException(
+					"Column " + columnName + " is of type " + columnTypes[index] + ", not " + columnType);
+		}
+		return columns[index];
+	}
+
+	private int getIndex(String columnName) {
+		int index = columnIndex.indexOf(columnName);
+		if (index < 0) {
+			throw new IllegalArgumentException("No such column, " + columnName + " in " + getColumnNames());
+		}
+		return index;
+	}
+
+	static ColumnType toColumnType(int sqlType) {
+		switch (sqlType) {
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+		case Types.BIGINT:
+			return ColumnType.LONG;
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return ColumnType.DOUBLE;
+		default:
+			return ColumnType.OBJECT;
+		}
+	}
+
+	/**
+	 *
+	 * Reads the whole result set column by column, growing the column arrays as
+	 * rows arrive and trimming them once at the end.
+	 *
+	 */
+	public static class ColumnarOutcome implements Outcome<ColumnarResult> {
+		private final int expectedSize;
+
+		public ColumnarOutcome(int expectedSize) {
+			super();
+			this.expectedSize = expectedSize;
+		}
+
+		@Override
+		public ColumnarResult handle(ResultSet resultSet, Statement statement) throws SQLException {
+			ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+			ColumnIndex columnIndex = ColumnIndex.of(resultSetMetaData);
+			int columnCount = columnIndex.size();
+			ColumnType[] columnTypes = new ColumnType[columnCount];
+			Object[] columns = new Object[columnCount];
+			BitSet[] nulls = new BitSet[columnCount];
+			int capacity = Math.max(16, expectedSize);
+			for (int index = 0; index < columnCount; index++) {
+				int sqlType = resultSetMetaData.getColumnType(columnIndex.getColumnPosition(index));
+				columnTypes[index] = toColumnType(sqlType);
+				columns[index] = newColumn(columnTypes[index], capacity);
+				nulls[index] = new BitSet();
+			}
+			int rowCount = 0;
+			while (resultSet.next()) {
+				if (rowCount == capacity) {
+					capacity = capacity * 2;
+					for (int index = 0; index < columnCount; index++) {
+						columns[index] = resize(columnTypes[index], columns[index], capacity);
+					}
+				}
+				for (int index = 0; index < columnCount; index++) {
+					int position = columnIndex.getColumnPosition(index);
+					switch (columnTypes[index]) {
+					case LONG:
+						((long[]) columns[index])[rowCount] = resultSet.getLong(position);
+						break;
+					case DOUBLE:
+						((double[]) columns[index])[rowCount] = resultSet.getDouble(position);
+						break;
+					default:
+						((Object[]) columns[index])[rowCount] = resultSet.getObject(position);
+						break;
+					}
+					if (resultSet.wasNull() == true) {
+						nulls[index].set(rowCount);
+					}
+				}
+				rowCount++;
+			}
+			for (int index = 0; index < columnCount; index++) {
+				columns[index] = resize(columnTypes[index], columns[index], rowCount);
+			}
+			return new ColumnarResult(columnIndex, columnTypes, columns, nulls, rowCount);
+		}
+
+		private static Object newColumn(ColumnType columnType, int capacity) {
+			switch (columnType) {
+			case LONG:
+				return new long[capacity];
+			case DOUBLE:
+				return new double[capacity];
+			default:
+				return new Object[capacity];
+			}
+		}
+
+		private static Object resize(ColumnType columnType, Object column, int length) {
+			switch (columnType) {
+			case LONG:
+				return Arrays.copyOf((long[]) column, length);
+			case DOUBLE:
+				return Arrays.copyOf((double[]) column, length);
+			default:
+				return Arrays.copyOf((Object[]) column, length);
+			}
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package com.dieharddev.toolbox;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz77support.Parameters;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+
+/**
+ *
+ * Streaming codecs for compressed files, picked by file extension or
+ * explicitly. Levels run from 1 (fastest) to 9 (smallest); use
+ * {@link #DEFAULT_LEVEL} for each codec's own default.
+ *
+ * <p>
+ *
+ * ZSTD goes through commons-compress, which needs the zstd-jni library at run
+ * time; check {@link #isAvailable()} before relying on it.
+ *
+ * </p>
+ *
+ */
+public enum CompressionCodec {
+	NONE() {
+		@Override
+		public OutputStream compress(OutputStream outputStream, int level, int bufferSize) {
+			return outputStream;
+		}
+
+		@Override
+		public InputStream decompress(InputStream inputStream, int bufferSize) {
+			return inputStream;
+		}
+	},
+	GZIP(".gz", ".gzip") {
+		@Override
+		public OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException {
+			return new GZIPOutputStream(outputStream, bufferSize) {
+				{
+					if (level != DEFAULT_LEVEL) {
+						def.setLevel(level);
+					}
+				}
+			};
+		}
+
+		@Override
+		public InputStream decompress(InputStream inputStream, int bufferSize) throws IOException {
+			return new GZIPInputStream(inputStream, bufferSize);
+		}
+	},
+	BZIP2(".bz2", ".bzip2") {
+		@Override
+		public OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException {
+			// The level is the block size in 100k units
+			return new BZip2CompressorOutputStream(outputStream,
+					(level == DEFAULT_LEVEL) ? BZip2CompressorOutputStream.MAX_BLOCKSIZE : level);
+		}
+
+		@Override
+		public InputStream decompress(InputStream inputStream, int bufferSize) throws IOException {
+			return new BZip2CompressorInputStream(inputStream, true);
+		}
+	},
+	XZ(".xz") {
+		@Override
+		public OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException {
+			// xz presets run from 0 to 9, 6 is the xz default
+			return new XZCompressorOutputStream(outputStream, (level == DEFAULT_LEVEL) ? 6 : level);
+		}
+
+		@Override
+		public InputStream decompress(InputStream inputStream, int bufferSize) throws IOException {
+			return new XZCompressorInputStream(inputStream, true);
+		}
+	},
+	LZ4(".lz4") {
+		@Override
+		public OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException {
+			Parameters.Builder lz77Parameters = BlockLZ4CompressorOutputStream.createParameterBuilder();
+			if ((level != DEFAULT_LEVEL) && (level <= 3)) {
+				lz77Parameters.tunedForSpeed();
+			} else if ((level != DEFAULT_LEVEL) && (level >= 7)) {
+				lz77Parameters.tunedForCompressionRatio();
+			}
+			return new FramedLZ4CompressorOutputStream(outputStream, new FramedLZ4CompressorOutputStream.Parameters(
+					FramedLZ4CompressorOutputStream.BlockSize.M4, lz77Parameters.build()));
+		}
+
+		@Override
+		public InputStream decompress(InputStream inputStream, int bufferSize) throws IOException {
+			return new FramedLZ4CompressorInputStream(inputStream, true);
+		}
+	},
+	ZSTD(".zst", ".zstd") {
+		@Override
+		public OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException {
+			checkAvailable();
+			// zstd levels run from 1 to 22, 3 is the zstd default
+			return new ZstdCompressorOutputStream(outputStream, (level == DEFAULT_LEVEL) ? 3 : level);
+		}
+
+		@Override
+		public InputStream decompress(InputStream inputStream, int bufferSize) throws IOException {
+			checkAvailable();
+			return new ZstdCompressorInputStream(inputStream);
+		}
+
+		@Override
+		public boolean isAvailable() {
+			return zstdAvailable;
+		}
+	};
+
+	public static final int DEFAULT_LEVEL = -1;
+
+	private static final boolean zstdAvailable = isClassPresent("com.github.luben.zstd.ZstdOutputStream");
+
+	private final String[] extensions;
+
+	private CompressionCodec(String... extensions) {
+		this.extensions = extensions;
+	}
+
+	/**
+	 *
+	 * @param outputStream closed when the returned stream is closed
+	 *
+	 */
+	public abstract OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException;
+
+	public abstract InputStream decompress(InputStream inputStream, int bufferSize) throws IOException;
+
+	public boolean isAvailable() {
+		return true;
+	}
+
+	public String getExtension() {
+		return (extensions.length == 0) ? "" : extensions[0];
+	}
+
+	/**
+	 *
+	 * @return the codec for the file's extension, {@link #NONE} when it has no
+	 *         known compression extension
+	 *
+	 */
+	public static CompressionCodec forFile(File file) {
+		String fileName = file.getName().toLowerCase(Locale.ROOT);
+		for (CompressionCodec compressionCodec : values()) {
+			for (String extension : compressionCodec.extensions) {
+				if (fileName.endsWith(extension) == true) {
+					return compressionCodec;
+				}
+			}
+		}
+		return NONE;
+	}
+
+	void checkAvailable() throws IOException {
+		if (isAvailable() == false) {
+			throw new IOException(name() + " compression needs com.github.luben:zstd-jni on the class path");
+		}
+	}
+
+	private static boolean isClassPresent(String className) {
+		try {
+			Class.forName(className, false, CompressionCodec.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package com.dieharddev.toolbox;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.dieharddev.toolbox.ToolBox.ToolBoxExposeMethod;
+import com.dieharddev.toolbox.ToolBox.ToolBoxExposedMethods;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ *
+ * Serializes values declared as {@link ToolBoxExposedMethods}, e.g. the
+ * elements of {@link ToolBox#ExposedMethodsListType}: their fields plus the
+ * values of getters annotated with {@link ToolBoxExposeMethod}. Like the
+ * {@code registerTypeAdapter(ToolBoxExposedMethods.class, ...)} it replaces,
+ * it only matches that declared type; a bean passed or nested as its own class
+ * is written by the regular Gson settings.
+ *
+ * <p>
+ *
+ * Fields and exposed getters are resolved once per class into
+ * {@link MethodHandle}s and written straight into the outgoing
+ * {@link JsonWriter}. The output is the one of the earlier tree based
+ * serializer: fields as a plain {@code new Gson()} writes them, static and
+ * transient ones skipped and null ones left out, and exposed getters replacing
+ * fields of the same name, null values included.
+ *
+ * </p>
+ *
+ */
+public class ExposedMethodsTypeAdapterFactory implements TypeAdapterFactory {
+	private static final MethodType getterType = MethodType.methodType(Object.class, Object.class);
+	// Writes the property values, as the tree based serializer's inner new Gson() did
+	private static final Gson plainGson = new Gson();
+
+	@Override
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+		if (typeToken.getRawType() != ToolBoxExposedMethods.class) {
+			return null;
+		}
+		return new ExposedMethodsTypeAdapter<T>(gson, this, typeToken);
+	}
+
+	private static class ExposedMethodsTypeAdapter<T> extends TypeAdapter<T> {
+		private final Gson gson;
+		private final TypeAdapterFactory skipPast;
+		private final TypeToken<T> typeToken;
+		private final ConcurrentHashMap<Class<?>, ClassDescriptor> classDescriptors = new ConcurrentHashMap<>();
+		private volatile TypeAdapter<T> readDelegate;
+
+		ExposedMethodsTypeAdapter(Gson gson, TypeAdapterFactory skipPast, TypeToken<T> typeToken) {
+			super();
+			this.gson = gson;
+			this.skipPast = skipPast;
+			this.typeToken = typeToken;
+		}
+
+		@Override
+		public void write(JsonWriter out, T value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			ClassDescriptor classDescriptor = classDescriptors.computeIfAbsent(value.getClass(),
+					new Function<Class<?>, ClassDescriptor>() {
+						@Override
+						public ClassDescriptor apply(Class<?> aClass) {
+							return ClassDescriptor.create(aClass);
+						}
+					});
+			classDescriptor.write(gson, out, value);
+		}
+
+		@Override
+		public T read(JsonReader in) throws IOException {
+			TypeAdapter<T> delegate = readDelegate;
+			if (delegate == null) {
+				delegate = gson.getDelegateAdapter(skipPast, typeToken);
+				readDelegate = delegate;
+			}
+			return delegate.read(in);
+		}
+	}
+
+	private static class ClassDescriptor {
+		private final Class<?> aClass;
+		private final BoundProperty[] properties;
+
+		private ClassDescriptor(Class<?> aClass, BoundProperty[] properties) {
+			super();
+			this.aClass = aClass;
+			this.properties = properties;
+		}
+
+		static ClassDescriptor create(Class<?> aClass) {
+			List<BoundProperty> exposedProperties = getExposedProperties(aClass);
+			if ((ToolBoxExposedMethods.class.isAssignableFrom(aClass) == false)
+					&& (exposedProperties.isEmpty() == true)) {
+				// Something else in a ToolBoxExposedMethods slot, e.g. a String in a list
+				return new ClassDescriptor(aClass, null);
+			}
+			Map<String, BoundProperty> properties = new LinkedHashMap<String, BoundProperty>();
+			for (Class<?> current = aClass; (current != null) && (current != Object.class); current = current
+					.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					if (isExcluded(field) == true) {
+						continue;
+					}
+					String name = getFieldName(field);
+					if (properties.containsKey(name) == true) {
+						continue;
+					}
+					try {
+						field.setAccessible(true);
+						MethodHandle getter = MethodHandles.lookup().unreflectGetter(field).asType(getterType);
+						properties.put(name,
+								new BoundProperty(name, field.getType(), field.getGenericType(), getter, false));
+					} catch (IllegalAccessException | RuntimeException e) {
+						throw new JsonIOException(
+								"Could not access field " + field.getName() + " of " + aClass.getName(), e);
+					}
+				}
+			}
+			// Keeps the position of a replaced field, like adding to the JSON tree did
+			for (BoundProperty exposedProperty : exposedProperties) {
+				properties.put(exposedProperty.name, exposedProperty);
+			}
+			return new ClassDescriptor(aClass, properties.values().toArray(new BoundProperty[properties.size()]));
+		}
+
+		/**
+		 *
+		 * The default exclusions of {@code new Gson()}: static, transient and
+		 * synthetic fields, and fields of anonymous or local classes.
+		 *
+		 */
+		private static boolean isExcluded(Field field) {
+			int modifiers = field.getModifiers();
+			if ((Modifier.isStatic(modifiers) == true) || (Modifier.isTransient(modifiers) == true)
+					|| (field.isSynthetic() == true)) {
+				return true;
+			}
+			Class<?> fieldType = field.getType();
+			return (Enum.class.isAssignableFrom(fieldType) == false)
+					&& ((fieldType.isAnonymousClass() == true) || (fieldType.isLocalClass() == true));
+		}
+
+		private static String getFieldName(Field field) {
+			SerializedName serializedName = field.getAnnotation(SerializedName.class);
+			if (serializedName != null) {
+				return serializedName.value();
+			}
+			return plainGson.fieldNamingStrategy().translateName(field);
+		}
+
+		private static List<BoundProperty> getExposedProperties(Class<?> aClass) {
+			List<BoundProperty> exposedProperties = new ArrayList<BoundProperty>();
+			PropertyDescriptor[] propertyDescriptors;
+			try {
+				propertyDescriptors = Introspector.getBeanInfo(aClass).getPropertyDescriptors();
+			} catch (IntrospectionException e) {
+				throw new JsonIOException("Could not introspect " + aClass.getName(), e);
+			}
+			for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+				Method readMethod = propertyDescriptor.getReadMethod();
+				if ((readMethod == null) || (readMethod.getAnnotation(ToolBoxExposeMethod.class) == null)) {
+					continue;
+				}
+				try {
+					readMethod.setAccessible(true);
+					MethodHandle getter = MethodHandles.lookup().unreflect(readMethod).asType(getterType);
+					exposedProperties.add(new BoundProperty(propertyDescriptor.getName(), readMethod.getReturnType(),
+							readMethod.getGenericReturnType(), getter, true));
+				} catch (IllegalAccessException | RuntimeException e) {
+					throw new JsonIOException(
+							"Could not access method " + readMethod.getName() + " of " + aClass.getName(), e);
+				}
+			}
+			return exposedProperties;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		void write(Gson gson, JsonWriter out, Object value) throws IOException {
+			if (properties == null) {
+				((TypeAdapter) gson.getAdapter(aClass)).write(out, value);
+				return;
+			}
+			out.beginObject();
+			for (BoundProperty property : properties) {
+				Object propertyValue = property.get(value, aClass);
+				if (propertyValue == null) {
+					if (property.exposed == true) {
+						out.name(property.name);
+						out.nullValue();
+					}
+					continue;
+				}
+				out.name(property.name);
+				property.getAdapter(propertyValue).write(out, propertyValue);
+			}
+			out.endObject();
+		}
+	}
+
+	private static class BoundProperty {
+		private final String name;
+		private final Class<?> rawType;
+		private final Type genericType;
+		private final MethodHandle getter;
+		private final boolean exposed;
+		private volatile TypeAdapter<?> declaredTypeAdapter;
+
+		BoundProperty(String name, Class<?> rawType, Type genericType, MethodHandle getter, boolean exposed) {
+			super();
+			this.name = name;
+			this.rawType = rawType;
+			this.genericType = genericType;
+			this.getter = getter;
+			this.exposed = exposed;
+		}
+
+		Object get(Object value, Class<?> aClass) {
+			try {
+				return (Object) getter.invokeExact(value);
+			} catch (Throwable e) {
+				throw new JsonIOException("Could not read property " + name + " of " + aClass.getName(), e);
+			}
+		}
+
+		@SuppressWarnings("rawtypes")
+		TypeAdapter getAdapter(Object propertyValue) {
+			if ((rawType.isPrimitive() == true) || (propertyValue.getClass() == rawType)) {
+				TypeAdapter<?> typeAdapter = declaredTypeAdapter;
+				if (typeAdapter == null) {
+					typeAdapter = plainGson.getAdapter(TypeToken.get(genericType));
+					declaredTypeAdapter = typeAdapter;
+				}
+				return typeAdapter;
+			}
+			return plainGson.getAdapter(propertyValue.getClass());
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.dieharddev.toolbox;
+
+import java.io.File;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ *
+ * How the compressed file methods of {@link ToolBox} compress or decompress. A
+ * null codec picks one from the file extension, see
+ * {@link CompressionCodec#forFile(File)}.
+ *
+ */
+@Builder
+@Data
+public class FileCompression {
+	public static final FileCompression BY_EXTENSION = FileCompression.builder().build();
+
+	private final CompressionCodec codec;
+	@Builder.Default
+	private final int level = CompressionCodec.DEFAULT_LEVEL;
+	@Builder.Default
+	private final int bufferSize = ToolBox.FILE_BUFFER_SIZE;
+
+	public CompressionCodec resolveCodec(File file) {
+		return (codec == null) ? CompressionCodec.forFile(file) : codec;
+	}
+}
@@ -0,0 +1,23 @@
+package com.dieharddev.toolbox;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class FileListingChanges {
+	private final Path directory;
+	private final List<Path> added;
+	private final List<Path> modified;
+	private final List<Path> deleted;
+	private final long unchangedCount;
+	// False when there was no earlier snapshot, everything is reported as added
+	private final boolean previousSnapshotFound;
+
+	public boolean hasChanges() {
+		return (added.isEmpty() == false) || (modified.isEmpty() == false) || (deleted.isEmpty() == false);
+	}
+}
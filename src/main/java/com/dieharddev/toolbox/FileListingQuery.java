@@ -0,0 +1,57 @@
+package com.dieharddev.toolbox;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+
+/**
+ *
+ * What {@link FileTreeWalker} lists. Everything is checked while walking, so
+ * pruned or too deep directories are never read.
+ *
+ * <p>
+ *
+ * A glob without a '/' is matched against the entry name, e.g. "*.java"; one
+ * with a '/' against the path relative to the listed directory, e.g.
+ * "src/**&#47;*.java". Include globs select files, exclude globs drop files and
+ * prune directories. Size and modification time bounds only apply to files.
+ *
+ * </p>
+ *
+ */
+@Builder(toBuilder = true)
+@Data
+public class FileListingQuery {
+	@Singular
+	private final List<String> includeGlobs;
+	@Singular
+	private final List<String> excludeGlobs;
+	// e.g. ".git", "node_modules"
+	@Singular
+	private final Set<String> pruneDirectoryNames;
+	// True to skip a directory and everything below it
+	private final BiPredicate<Path, BasicFileAttributes> prunePredicate;
+	private final BiPredicate<Path, BasicFileAttributes> fileFilter;
+	// Files directly in the listed directory are at depth 1
+	@Builder.Default
+	private final int maxDepth = Integer.MAX_VALUE;
+	@Builder.Default
+	private final long minimumSize = 0;
+	@Builder.Default
+	private final long maximumSize = Long.MAX_VALUE;
+	// Inclusive
+	private final Instant modifiedAfter;
+	// Exclusive
+	private final Instant modifiedBefore;
+	// When false, symbolic links are listed as files and never descended
+	@Builder.Default
+	private final boolean followSymlinks = true;
+	private final boolean filesFirstOrder;
+}
@@ -0,0 +1,287 @@
+package com.dieharddev.toolbox;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import com.dieharddev.toolbox.FileTreeWalker.ListedFile;
+
+/**
+ *
+ * Compact on-disk record of a file listing: relative path, size, modification
+ * time and optionally a CRC32C of the content, sorted by path with shared path
+ * prefixes stored once. Comparing a fresh listing against it yields the added,
+ * modified and deleted files; the new snapshot then replaces the old one
+ * atomically. The snapshot file and its temporary files are never listed, even
+ * when they are kept inside the listed directory.
+ *
+ * <p>
+ *
+ * With content hashes, only files whose size or modification time changed are
+ * read again, and a file that was only touched is not reported as modified.
+ *
+ * </p>
+ *
+ */
+public final class FileListingSnapshot {
+	private static final int MAGIC = 0x54425331; // "TBS1"
+	private static final long NO_CONTENT_HASH = -1;
+
+	private final List<Entry> entries;
+	private final boolean withContentHash;
+
+	private FileListingSnapshot(List<Entry> entries, boolean withContentHash) {
+		super();
+		this.entries = entries;
+		this.withContentHash = withContentHash;
+	}
+
+	public static FileListingChanges update(Path directory, FileListingQuery fileListingQuery, File snapshotFile,
+			boolean withContentHash) {
+		FileListingSnapshot previousSnapshot = read(snapshotFile);
+		List<ListedFile> listedFiles = FileTreeWalker.listWithAttributes(directory, fileListingQuery);
+		String snapshotRelativePath = getRelativePathInside(directory, snapshotFile);
+		List<Entry> currentEntries = new ArrayList<Entry>(listedFiles.size());
+		for (ListedFile listedFile : listedFiles) {
+			String relativePath = directory.relativize(listedFile.getPath()).toString();
+			if ((snapshotRelativePath != null) && (isSnapshotFile(relativePath, snapshotRelativePath) == true)) {
+				continue;
+			}
+			BasicFileAttributes attributes = listedFile.getAttributes();
+			currentEntries.add(new Entry(relativePath, attributes.size(), attributes.lastModifiedTime().toMillis(),
+					NO_CONTENT_HASH));
+		}
+		Collections.sort(currentEntries, Entry.byRelativePath);
+		List<Entry> previousEntries = (previousSnapshot == null) ? Collections.<Entry>emptyList()
+				: previousSnapshot.entries;
+		boolean reuseContentHashes = (previousSnapshot != null) && (previousSnapshot.withContentHash == true);
+		List<Path> added = new ArrayList<Path>();
+		List<Path> modified = new ArrayList<Path>();
+		List<Path> deleted = new ArrayList<Path>();
+		long unchangedCount = 0;
+		int previousIndex = 0;
+		for (Entry currentEntry : currentEntries) {
+			while ((previousIndex < previousEntries.size())
+					&& (previousEntries.get(previousIndex).relativePath.compareTo(currentEntry.relativePath) < 0)) {
+				deleted.add(directory.resolve(previousEntries.get(previousIndex++).relativePath));
+			}
+			Entry previousEntry = null;
+			if ((previousIndex < previousEntries.size())
+					&& (previousEntries.get(previousIndex).relativePath.equals(currentEntry.relativePath) == true)) {
+				previousEntry = previousEntries.get(previousIndex++);
+			}
+			Path path = directory.resolve(currentEntry.relativePath);
+			if (previousEntry == null) {
+				if (withContentHash == true) {
+					currentEntry.contentHash = hashContent(path);
+				}
+				added.add(path);
+			} else if ((previousEntry.size == currentEntry.size)
+					&& (previousEntry.lastModifiedMillis == currentEntry.lastModifiedMillis)) {
+				if ((withContentHash == true) && (reuseContentHashes == true)) {
+					currentEntry.contentHash = previousEntry.contentHash;
+				} else if (withContentHash == true) {
+					currentEntry.contentHash = hashContent(path);
+				}
+				unchangedCount++;
+			} else if ((withContentHash == true) && (reuseContentHashes == true)) {
+				currentEntry.contentHash = hashContent(path);
+				if ((currentEntry.contentHash != NO_CONTENT_HASH)
+						&& (currentEntry.contentHash == previousEntry.contentHash)
+						&& (previousEntry.size == currentEntry.size)) {
+					unchangedCount++;
+				} else {
+					modified.add(path);
+				}
+			} else {
+				if (withContentHash == true) {
+					currentEntry.contentHash = hashContent(path);
+				}
+				modified.add(path);
+			}
+		}
+		while (previousIndex < previousEntries.size()) {
+			deleted.add(directory.resolve(previousEntries.get(previousIndex++).relativePath));
+		}
+		new FileListingSnapshot(currentEntries, withContentHash).write(snapshotFile);
+		return FileListingChanges.builder()//
+				.directory(directory)//
+				.added(added)//
+				.modified(modified)//
+				.deleted(deleted)//
+				.unchangedCount(unchangedCount)//
+				.previousSnapshotFound(previousSnapshot != null)//
+				.build();
+	}
+
+	/**
+	 *
+	 * @return the snapshot file's path relative to the listed directory, or null
+	 *         when it is kept outside of it
+	 *
+	 */
+	private static String getRelativePathInside(Path directory, File snapshotFile) {
+		try {
+			Path realDirectory = directory.toRealPath();
+			Path realSnapshotPath = snapshotFile.getAbsoluteFile().getParentFile().toPath().toRealPath()
+					.resolve(snapshotFile.getName());
+			if (realSnapshotPath.startsWith(realDirectory) == false) {
+				return null;
+			}
+			return realDirectory.relativize(realSnapshotPath).toString();
+		} catch (IOException e) {
+			throw new RuntimeException("update(): Could not resolve snapshot \"" + snapshotFile + "\"", e);
+		}
+	}
+
+	// The snapshot itself or one of the temporary files write() creates next to it
+	private static boolean isSnapshotFile(String relativePath, String snapshotRelativePath) {
+		if (relativePath.startsWith(snapshotRelativePath) == false) {
+			return false;
+		}
+		return (relativePath.length() == snapshotRelativePath.length())
+				|| ((relativePath.charAt(snapshotRelativePath.length()) == '.') && (relativePath.endsWith(".tmp") == true)
+						&& (relativePath.indexOf(File.separatorChar, snapshotRelativePath.length()) < 0));
+	}
+
+	/**
+	 *
+	 * @return null when the snapshot file does not exist yet
+	 *
+	 */
+	static FileListingSnapshot read(File snapshotFile) {
+		try (DataInputStream dataInputStream = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(snapshotFile.toPath()), ToolBox.FILE_BUFFER_SIZE))) {
+			if (dataInputStream.readInt() != MAGIC) {
+				throw new IOException("Not a file listing snapshot");
+			}
+			boolean withContentHash = dataInputStream.readBoolean();
+			int count = dataInputStream.readInt();
+			List<Entry> entries = new ArrayList<Entry>(count);
+			String previousRelativePath = "";
+			for (int index = 0; index < count; index++) {
+				int sharedPrefixLength = dataInputStream.readUnsignedShort();
+				String relativePath = previousRelativePath.substring(0, sharedPrefixLength)
+						+ dataInputStream.readUTF();
+				long size = dataInputStream.readLong();
+				long lastModifiedMillis = dataInputStream.readLong();
+				long contentHash = (withContentHash == true) ? dataInputStream.readLong() : NO_CONTENT_HASH;
+				entries.add(new Entry(relativePath, size, lastModifiedMillis, contentHash));
+				previousRelativePath = relativePath;
+			}
+			return new FileListingSnapshot(entries, withContentHash);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | RuntimeException e) {
+			throw new RuntimeException("read(): Could not read snapshot \"" + snapshotFile + "\"", e);
+		}
+	}
+
+	void write(File snapshotFile) {
+		Path snapshotPath = snapshotFile.getAbsoluteFile().toPath();
+		Path temporaryPath = null;
+		try {
+			// Unique per call, so concurrent updates never write the same file
+			temporaryPath = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName() + ".", ".tmp");
+			try (DataOutputStream dataOutputStream = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temporaryPath), ToolBox.FILE_BUFFER_SIZE))) {
+				dataOutputStream.writeInt(MAGIC);
+				dataOutputStream.writeBoolean(withContentHash);
+				dataOutputStream.writeInt(entries.size());
+				String previousRelativePath = "";
+				for (Entry entry : entries) {
+					int sharedPrefixLength = Math.min(sharedPrefixLength(previousRelativePath, entry.relativePath),
+							0xFFFF);
+					dataOutputStream.writeShort(sharedPrefixLength);
+					dataOutputStream.writeUTF(entry.relativePath.substring(sharedPrefixLength));
+					dataOutputStream.writeLong(entry.size);
+					dataOutputStream.writeLong(entry.lastModifiedMillis);
+					if (withContentHash == true) {
+						dataOutputStream.writeLong(entry.contentHash);
+					}
+					previousRelativePath = entry.relativePath;
+				}
+			}
+			Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			temporaryPath = null;
+		} catch (IOException e) {
+			throw new RuntimeException("write(): Could not write snapshot \"" + snapshotFile + "\"", e);
+		} finally {
+			if (temporaryPath != null) {
+				try {
+					Files.deleteIfExists(temporaryPath);
+				} catch (IOException e) {
+					// Left behind, it is never listed
+				}
+			}
+		}
+	}
+
+	private static int sharedPrefixLength(String previous, String current) {
+		int length = Math.min(previous.length(), current.length());
+		int index = 0;
+		while ((index < length) && (previous.charAt(index) == current.charAt(index))) {
+			index++;
+		}
+		// Do not split a surrogate pair, writeUTF would mangle the halves
+		if ((index > 0) && (Character.isHighSurrogate(current.charAt(index - 1)) == true)) {
+			index--;
+		}
+		return index;
+	}
+
+	static long hashContent(Path path) {
+		CRC32C crc32c = new CRC32C();
+		ByteBuffer byteBuffer = ByteBuffer.allocate(ToolBox.FILE_BUFFER_SIZE);
+		try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (fileChannel.read(byteBuffer) >= 0) {
+				byteBuffer.flip();
+				crc32c.update(byteBuffer);
+				byteBuffer.clear();
+			}
+		} catch (IOException e) {
+			// Unreadable now, e.g. deleted since listing; report it as changed next time
+			return NO_CONTENT_HASH;
+		}
+		return crc32c.getValue();
+	}
+
+	private static final class Entry {
+		private static final Comparator<Entry> byRelativePath = new Comparator<Entry>() {
+			@Override
+			public int compare(Entry entry1, Entry entry2) {
+				return entry1.relativePath.compareTo(entry2.relativePath);
+			}
+		};
+
+		private final String relativePath;
+		private final long size;
+		private final long lastModifiedMillis;
+		private long contentHash;
+
+		Entry(String relativePath, long size, long lastModifiedMillis, long contentHash) {
+			super();
+			this.relativePath = relativePath;
+			this.size = size;
+			this.lastModifiedMillis = lastModifiedMillis;
+			this.contentHash = contentHash;
+		}
+	}
+}
@@ -1,62 +1,24 @@
 package com.dieharddev.toolbox;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.commons.io.filefilter.TrueFileFilter;
+import java.util.stream.Stream;
 
 public interface FileListingUtils extends UtilsCommons, ValueChecks {
+	/**
+	 * 
+	 * A directory that does not exist has no files.
+	 * 
+	 */
 	default List<File> listFilesFilesFirstOrder(File directory, String regEx) {
-		final Pattern pattern = Pattern.compile(removeOuterSingleQuotes(regEx));
-		List<File> filesList = new ArrayList<File>();
-		Collection<File> tmpFilesList = FileUtils.listFiles(directory.getAbsoluteFile(), new IOFileFilter() {
-			@Override
-			public boolean accept(File file) {
-				Matcher matcher = pattern.matcher(file.getName());
-				return matcher.matches();
-			}
-
-			@Override
-			public boolean accept(File dir, String name) {
-				return false;
-			}
-		}, null);
-		filesList.addAll(tmpFilesList);
-		Collection<File> tmpDirectories = FileUtils.listFilesAndDirs(directory.getAbsoluteFile(), new IOFileFilter() {
-			@Override
-			public boolean accept(File file) {
-				return false;
-			}
-
-			@Override
-			public boolean accept(File dir, String name) {
-				return false;
-			}
-		}, new IOFileFilter() {
-			@Override
-			public boolean accept(File file) {
-				return file.getParentFile().equals(directory);
-			}
-
-			@Override
-			public boolean accept(File dir, String name) {
-				return false;
-			}
-		});
-		List<File> tmpDirectoriesList = toList(tmpDirectories.toArray(new File[] {}));
-		checkIsEqual(tmpDirectoriesList.get(0).getAbsoluteFile(), directory.getAbsoluteFile());
-		tmpDirectoriesList.remove(0);
-		for (File directoryFile : tmpDirectoriesList) {
-			List<File> filesInDirectoryList = listFilesFilesFirstOrder(directoryFile, regEx);
-			filesList.addAll(filesInDirectoryList);
+		if (directory.getAbsoluteFile().exists() == false) {
+			return new ArrayList<File>();
 		}
-		return filesList;
+		checkDirectoryExists(directory.getAbsoluteFile());
+		return FileTreeWalker.toFiles(FileTreeWalker.list(directory.getAbsoluteFile().toPath(),
+				FileTreeWalker.fileNameMatches(removeOuterSingleQuotes(regEx)), true, true));
 	}
 
 	default List<File> listFilesMatchingPattern(final String directoryName, final String regEx) {
@@ -73,25 +35,64 @@ public interface FileListingUtils extends UtilsCommons, ValueChecks {
 
 	default List<File> listFilesMatchingPattern(final File directory, final String regEx, boolean recursively) {
 		checkDirectoryExists(directory.getAbsoluteFile());
-		final Pattern pattern = Pattern.compile(removeOuterSingleQuotes(regEx));
-		List<File> filesList = new ArrayList<File>();
-		IOFileFilter ioFileFilter = null;
-		if (recursively == true) {
-			ioFileFilter = TrueFileFilter.INSTANCE;
-		}
-		Collection<File> tmpList = FileUtils.listFiles(directory.getAbsoluteFile(), new IOFileFilter() {
-			@Override
-			public boolean accept(File file) {
-				Matcher matcher = pattern.matcher(file.getName());
-				return matcher.matches();
-			}
+		return FileTreeWalker.toFiles(FileTreeWalker.list(directory.getAbsoluteFile().toPath(),
+				FileTreeWalker.fileNameMatches(removeOuterSingleQuotes(regEx)), recursively, false));
+	}
+
+	/**
+	 * 
+	 * Lazy variant of {@link #listFilesMatchingPattern(File, String, boolean)};
+	 * the stream must be closed.
+	 * 
+	 */
+	default Stream<Path> streamFilesMatchingPattern(final Path directory, final String regEx, boolean recursively) {
+		checkDirectoryExists(directory.toAbsolutePath().toFile());
+		return FileTreeWalker.stream(directory.toAbsolutePath(),
+				FileTreeWalker.fileNameMatches(removeOuterSingleQuotes(regEx)), recursively, false);
+	}
 
-			@Override
-			public boolean accept(File dir, String name) {
-				return false;
-			}
-		}, ioFileFilter);
-		filesList.addAll(tmpList);
-		return filesList;
+	default Stream<Path> streamFilesFilesFirstOrder(final Path directory, final String regEx) {
+		checkDirectoryExists(directory.toAbsolutePath().toFile());
+		return FileTreeWalker.stream(directory.toAbsolutePath(),
+				FileTreeWalker.fileNameMatches(removeOuterSingleQuotes(regEx)), true, true);
+	}
+
+	/**
+	 * 
+	 * E.g. {@code FileListingQuery.builder().includeGlob("*.jar").pruneDirectoryName(".git").build()}
+	 * 
+	 */
+	default List<File> listFiles(final File directory, FileListingQuery fileListingQuery) {
+		checkDirectoryExists(directory.getAbsoluteFile());
+		return FileTreeWalker.toFiles(FileTreeWalker.list(directory.getAbsoluteFile().toPath(), fileListingQuery));
+	}
+
+	default Stream<Path> streamFiles(final Path directory, FileListingQuery fileListingQuery) {
+		checkDirectoryExists(directory.toAbsolutePath().toFile());
+		return FileTreeWalker.stream(directory.toAbsolutePath(), fileListingQuery);
+	}
+
+	/**
+	 * 
+	 * Lists the directory and compares it with the snapshot stored under
+	 * {@code snapshotName} by the previous call, then stores the new snapshot.
+	 * The first call reports every file as added.
+	 * 
+	 * @param withContentHash also detect changes by content, at the cost of
+	 *                        reading new and changed files
+	 * 
+	 */
+	default FileListingChanges getFileListingChanges(//
+			final File directory, //
+			FileListingQuery fileListingQuery, //
+			File persistenceDirectory, //
+			String snapshotName, //
+			boolean withContentHash) {
+		checkDirectoryExists(directory.getAbsoluteFile());
+		checkNotEmptyParameter(snapshotName, "snapshotName");
+		File canonicalPersistenceDirectory //
+				= checkPerisenceDirectoryParameter(persistenceDirectory, "persistenceDirectory");
+		return FileListingSnapshot.update(directory.getAbsoluteFile().toPath(), fileListingQuery,
+				new File(canonicalPersistenceDirectory, snapshotName + ".snapshot"), withContentHash);
 	}
 }
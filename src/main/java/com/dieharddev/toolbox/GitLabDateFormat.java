@@ -0,0 +1,149 @@
+package com.dieharddev.toolbox;
+
+import java.time.Instant;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import com.google.gson.JsonParseException;
+
+/**
+ *
+ * Lock-free formatting and parsing of GitLab style timestamps, e.g.
+ * "2016-07-27T15:30:40.864Z". All formatters are immutable and shared.
+ *
+ */
+public final class GitLabDateFormat {
+	// "2016-07-27T15:30:40.864Z"
+	private static final int UTC_TIMESTAMP_LENGTH = 24;
+
+	public static final DateTimeFormatter utcFormatter //
+			= DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US).withZone(ZoneOffset.UTC);
+	// No zone, format() applies the current default one
+	private static final DateTimeFormatter offsetFormatter //
+			= DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX", Locale.US);
+	private static final DateTimeFormatter lenientOffsetFormatter //
+			= DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS[XXX][XX][X]", Locale.US);
+	private static volatile DateTimeFormatter zonedOffsetFormatter = offsetFormatter.withZone(ZoneId.systemDefault());
+
+	private GitLabDateFormat() {
+	}
+
+	/**
+	 *
+	 * Formats in the system time zone, e.g. "2016-07-27T10:30:40.864-05", the
+	 * same shape the previous SimpleDateFormat based adapter produced. The zone
+	 * is looked up per call, so {@link java.util.TimeZone#setDefault} applies.
+	 *
+	 */
+	public static String format(long epochMillis) {
+		return getOffsetFormatter().format(Instant.ofEpochMilli(epochMillis));
+	}
+
+	/**
+	 *
+	 * @return the offset formatter in the current default zone
+	 *
+	 */
+	public static DateTimeFormatter getOffsetFormatter() {
+		ZoneId zoneId = ZoneId.systemDefault();
+		DateTimeFormatter formatter = zonedOffsetFormatter;
+		if (zoneId.equals(formatter.getZone()) == false) {
+			formatter = offsetFormatter.withZone(zoneId);
+			zonedOffsetFormatter = formatter;
+		}
+		return formatter;
+	}
+
+	public static String formatUtc(Instant instant) {
+		return utcFormatter.format(instant);
+	}
+
+	public static long parseEpochMillis(String text) {
+		long epochMillis = parseUtcTimestamp(text);
+		if (epochMillis != Long.MIN_VALUE) {
+			return epochMillis;
+		}
+		return parseInstant(text).toEpochMilli();
+	}
+
+	public static Instant parseInstant(String text) {
+		long epochMillis = parseUtcTimestamp(text);
+		if (epochMillis != Long.MIN_VALUE) {
+			return Instant.ofEpochMilli(epochMillis);
+		}
+		return parseOffsetDateTime(text).toInstant();
+	}
+
+	public static OffsetDateTime parseOffsetDateTime(String text) {
+		try {
+			return OffsetDateTime.parse(text, lenientOffsetFormatter);
+		} catch (DateTimeParseException e) {
+			try {
+				return OffsetDateTime.parse(text, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+			} catch (DateTimeParseException e2) {
+				throw new JsonParseException("Could not parse timestamp, \"" + text + "\"", e);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Fast path for the fixed "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'" shape.
+	 *
+	 * @return epoch milliseconds, or {@link Long#MIN_VALUE} when the text does not
+	 *         have exactly that shape
+	 *
+	 */
+	static long parseUtcTimestamp(String text) {
+		if ((text.length() != UTC_TIMESTAMP_LENGTH) //
+				|| (text.charAt(4) != '-') || (text.charAt(7) != '-') || (text.charAt(10) != 'T')
+				|| (text.charAt(13) != ':') || (text.charAt(16) != ':') || (text.charAt(19) != '.')
+				|| (text.charAt(23) != 'Z')) {
+			return Long.MIN_VALUE;
+		}
+		int year = parseDigits(text, 0, 4);
+		int month = parseDigits(text, 5, 7);
+		int day = parseDigits(text, 8, 10);
+		int hour = parseDigits(text, 11, 13);
+		int minute = parseDigits(text, 14, 16);
+		int second = parseDigits(text, 17, 19);
+		int millis = parseDigits(text, 20, 23);
+		if ((year < 0) || (month < 1) || (month > 12) || (day < 1) || (hour < 0) || (hour > 23) || (minute < 0)
+				|| (minute > 59) || (second < 0) || (second > 59) || (millis < 0)) {
+			return Long.MIN_VALUE;
+		}
+		if (day > Month.of(month).length(IsoChronology.INSTANCE.isLeapYear(year))) {
+			return Long.MIN_VALUE;
+		}
+		long epochSeconds = ((toEpochDay(year, month, day) * 24 + hour) * 60 + minute) * 60 + second;
+		return epochSeconds * 1000 + millis;
+	}
+
+	private static int parseDigits(String text, int start, int end) {
+		int value = 0;
+		for (int index = start; index < end; index++) {
+			int digit = text.charAt(index) - '0';
+			if ((digit < 0) || (digit > 9)) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	// Days from civil, see http://howardhinnant.github.io/date_algorithms.html
+	private static long toEpochDay(int year, int month, int day) {
+		long y = (month <= 2) ? year - 1 : year;
+		long era = ((y >= 0) ? y : y - 399) / 400;
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+}
@@ -0,0 +1,172 @@
+package com.dieharddev.toolbox;
+
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.List;
+
+import com.dieharddev.toolbox.ToolBox.DateTypeAdapter;
+import com.dieharddev.toolbox.ToolBox.DecryptionDeserializer;
+import com.dieharddev.toolbox.ToolBox.EncryptionSerializer;
+import com.dieharddev.toolbox.ToolBox.InstantTypeAdapter;
+import com.dieharddev.toolbox.ToolBox.LocalDateTypeAdapter;
+import com.dieharddev.toolbox.ToolBox.OffsetDateTimeTypeAdapter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ *
+ * Prebuilt, immutable {@link Gson} instances used by the {@link ToolBox} JSON
+ * methods. {@link Gson} is thread-safe once created, so each configuration is
+ * built once and shared instead of going through a {@link GsonBuilder} on
+ * every call.
+ *
+ */
+public final class GsonRegistry {
+	public static final int MAXIMUM_CACHED_VARIANTS = 64;
+
+	private static final Gson gson = newGsonBuilder().create();
+	private static final Gson prettyGson = newGsonBuilder().setPrettyPrinting().create();
+	private static final Gson gitLabDateGson = newGsonBuilder()//
+			.registerTypeAdapter(Date.class, new DateTypeAdapter().nullSafe())//
+			.registerTypeAdapter(java.sql.Date.class, new DateTypeAdapter(true).nullSafe())//
+			.registerTypeAdapter(Instant.class, new InstantTypeAdapter().nullSafe())//
+			.registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeTypeAdapter().nullSafe())//
+			.registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter().nullSafe())//
+			.create();
+	private static final Gson prettyNullEncryptionGson = newGsonBuilder()//
+			.registerTypeAdapter(EncryptedString.class, new EncryptionSerializer(null))//
+			.setPrettyPrinting().create();
+	private static final Gson nullDecryptionGson = newGsonBuilder()//
+			.registerTypeAdapter(EncryptedString.class, new DecryptionDeserializer(null))//
+			.create();
+
+	// Strategy lists asked for once, a variant is only cached when asked for again
+	private static final Cache<List<ExclusionStrategy>, Boolean> requestedExclusionStrategies //
+			= CacheBuilder.newBuilder()//
+					.maximumSize(MAXIMUM_CACHED_VARIANTS)//
+					.build();
+
+	private static final LoadingCache<List<ExclusionStrategy>, Gson> prettyExclusionGsonCache //
+			= CacheBuilder.newBuilder()//
+					.maximumSize(MAXIMUM_CACHED_VARIANTS)//
+					.build(new CacheLoader<List<ExclusionStrategy>, Gson>() {
+						@Override
+						public Gson load(List<ExclusionStrategy> exclusionStrategies) {
+							return newGsonBuilder().setPrettyPrinting()//
+									.setExclusionStrategies(
+											exclusionStrategies.toArray(new ExclusionStrategy[] {}))//
+									.create();
+						}
+					});
+
+	// Weak keys compare by identity, which is what we want for encryption providers
+	private static final LoadingCache<PropertyEncryption, Gson> prettyEncryptionGsonCache //
+			= CacheBuilder.newBuilder()//
+					.weakKeys()//
+					.maximumSize(MAXIMUM_CACHED_VARIANTS)//
+					.build(new CacheLoader<PropertyEncryption, Gson>() {
+						@Override
+						public Gson load(PropertyEncryption propertyEncryption) {
+							return newGsonBuilder()//
+									.registerTypeAdapter(EncryptedString.class,
+											new EncryptionSerializer(propertyEncryption))//
+									.setPrettyPrinting().create();
+						}
+					});
+
+	private static final LoadingCache<PropertyEncryption, Gson> decryptionGsonCache //
+			= CacheBuilder.newBuilder()//
+					.weakKeys()//
+					.maximumSize(MAXIMUM_CACHED_VARIANTS)//
+					.build(new CacheLoader<PropertyEncryption, Gson>() {
+						@Override
+						public Gson load(PropertyEncryption propertyEncryption) {
+							return newGsonBuilder()//
+									.registerTypeAdapter(EncryptedString.class,
+											new DecryptionDeserializer(propertyEncryption))//
+									.create();
+						}
+					});
+
+	private GsonRegistry() {
+	}
+
+	/**
+	 *
+	 * Builder with the settings shared by every {@link ToolBox} JSON method. Use it
+	 * to build custom variants; the result should be kept and reused.
+	 *
+	 */
+	public static GsonBuilder newGsonBuilder() {
+		return new GsonBuilder().serializeNulls().disableHtmlEscaping()//
+				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)//
+				.registerTypeAdapterFactory(new ExposedMethodsTypeAdapterFactory());
+	}
+
+	public static Gson getGson() {
+		return gson;
+	}
+
+	public static Gson getPrettyGson() {
+		return prettyGson;
+	}
+
+	/**
+	 *
+	 * Strategies compare by identity, so only repeated calls with the same
+	 * instances, e.g. constants, reuse a cached Gson. A strategy list is cached on
+	 * its second request; new instances per call get a one-off Gson like before
+	 * and do not push the stable variants out of the cache.
+	 *
+	 */
+	public static Gson getPrettyGson(ExclusionStrategy... exclusionStrategies) {
+		if ((exclusionStrategies == null) || (exclusionStrategies.length == 0)) {
+			return prettyGson;
+		}
+		// Copied, a later change to the caller's array must not change the key
+		List<ExclusionStrategy> key = ImmutableList.copyOf(exclusionStrategies);
+		Gson cachedGson = prettyExclusionGsonCache.getIfPresent(key);
+		if (cachedGson != null) {
+			return cachedGson;
+		}
+		if (requestedExclusionStrategies.asMap().putIfAbsent(key, Boolean.TRUE) == null) {
+			return newGsonBuilder().setPrettyPrinting().setExclusionStrategies(exclusionStrategies).create();
+		}
+		requestedExclusionStrategies.invalidate(key);
+		return prettyExclusionGsonCache.getUnchecked(key);
+	}
+
+	public static Gson getGitLabDateGson() {
+		return gitLabDateGson;
+	}
+
+	public static Gson getPrettyEncryptionGson(PropertyEncryption propertyEncryption) {
+		if (propertyEncryption == null) {
+			return prettyNullEncryptionGson;
+		}
+		return prettyEncryptionGsonCache.getUnchecked(propertyEncryption);
+	}
+
+	public static Gson getDecryptionGson(PropertyEncryption propertyEncryption) {
+		if (propertyEncryption == null) {
+			return nullDecryptionGson;
+		}
+		return decryptionGsonCache.getUnchecked(propertyEncryption);
+	}
+
+	public static void invalidateCachedVariants() {
+		requestedExclusionStrategies.invalidateAll();
+		prettyExclusionGsonCache.invalidateAll();
+		prettyEncryptionGsonCache.invalidateAll();
+		decryptionGsonCache.invalidateAll();
+	}
+}
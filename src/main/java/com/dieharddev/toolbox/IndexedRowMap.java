@@ -0,0 +1,215 @@
+package com.dieharddev.toolbox;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *
+ * Compact row for {@link ToolBox#queryForList}: the column names live once in a
+ * shared {@link ColumnIndex} and each row only holds its values. Replacing
+ * values of existing columns keeps the compact form; the first write that adds
+ * or removes a column copies the row into a {@link HashMap}, so rows can still
+ * be enriched like the HashMaps returned before.
+ *
+ */
+public final class IndexedRowMap extends AbstractMap<String, Object> {
+	private final ColumnIndex columnIndex;
+	private final Object[] values;
+	private HashMap<String, Object> copiedRow;
+
+	public static IndexedRowMap read(ColumnIndex columnIndex, ResultSet resultSet) throws SQLException {
+		Object[] values = new Object[columnIndex.size()];
+		for (int index = 0; index < values.length; index++) {
+			values[index] = resultSet.getObject(columnIndex.getColumnPosition(index));
+		}
+		return new IndexedRowMap(columnIndex, values);
+	}
+
+	public IndexedRowMap(ColumnIndex columnIndex, Object[] values) {
+		super();
+		if (columnIndex.size() != values.length) {
+			throw new IllegalArgumentException(
+					"Expected " + columnIndex.size() + " values but found " + values.length);
+		}
+		this.columnIndex = columnIndex;
+		this.values = values;
+	}
+
+	public ColumnIndex getColumnIndex() {
+		return columnIndex;
+	}
+
+	/**
+	 *
+	 * @return the value of the column at index, null once that column was removed
+	 *
+	 */
+	public Object get(int index) {
+		if (copiedRow != null) {
+			return copiedRow.get(columnIndex.getColumnName(index));
+		}
+		return values[index];
+	}
+
+	@Override
+	public int size() {
+		if (copiedRow != null) {
+			return copiedRow.size();
+		}
+		return values.length;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (copiedRow != null) {
+			return copiedRow.containsKey(key);
+		}
+		return columnIndex.indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (copiedRow != null) {
+			return copiedRow.get(key);
+		}
+		int index = columnIndex.indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		return values[index];
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if (copiedRow == null) {
+			int index = columnIndex.indexOf(key);
+			if (index >= 0) {
+				Object previousValue = values[index];
+				values[index] = value;
+				return previousValue;
+			}
+			copyRow();
+		}
+		return copiedRow.put(key, value);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (copiedRow == null) {
+			if (columnIndex.indexOf(key) < 0) {
+				return null;
+			}
+			copyRow();
+		}
+		return copiedRow.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		if (copiedRow == null) {
+			copiedRow = new HashMap<String, Object>();
+		} else {
+			copiedRow.clear();
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Object>>() {
+			@Override
+			public int size() {
+				return IndexedRowMap.this.size();
+			}
+
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				if (copiedRow != null) {
+					return copiedRow.entrySet().iterator();
+				}
+				return new Iterator<Map.Entry<String, Object>>() {
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return index < values.length;
+					}
+
+					@Override
+					public Map.Entry<String, Object> next() {
+						if (index >= values.length) {
+							throw new NoSuchElementException();
+						}
+						return new RowEntry(index++);
+					}
+
+					@Override
+					public void remove() {
+						if (index == 0) {
+							throw new IllegalStateException();
+						}
+						IndexedRowMap.this.remove(columnIndex.getColumnName(index - 1));
+					}
+				};
+			}
+		};
+	}
+
+	private void copyRow() {
+		HashMap<String, Object> row = new HashMap<String, Object>((int) (values.length / 0.75f) + 2);
+		for (int index = 0; index < values.length; index++) {
+			row.put(columnIndex.getColumnName(index), values[index]);
+		}
+		copiedRow = row;
+	}
+
+	private final class RowEntry implements Map.Entry<String, Object> {
+		private final int index;
+
+		RowEntry(int index) {
+			super();
+			this.index = index;
+		}
+
+		@Override
+		public String getKey() {
+			return columnIndex.getColumnName(index);
+		}
+
+		@Override
+		public Object getValue() {
+			return get(index);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			return put(getKey(), value);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if ((object instanceof Map.Entry<?, ?>) == false) {
+				return false;
+			}
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+			return getKey().equals(entry.getKey())
+					&& ((getValue() == null) ? (entry.getValue() == null) : getValue().equals(entry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ ((getValue() == null) ? 0 : getValue().hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package com.dieharddev.toolbox;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ *
+ * Lock-free histogram of nanosecond latencies with log-linear buckets, in the
+ * style of HdrHistogram: each power of two is split into 32 linear buckets, so
+ * any reported percentile is within about 3% of the recorded value, from one
+ * nanosecond up to {@link Long#MAX_VALUE}, in a fixed 15 KB.
+ *
+ * <p>
+ *
+ * Recording is one atomic increment plus a few adds; threads only contend when
+ * they hit the same bucket at the same time.
+ *
+ * </p>
+ *
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong minimumNanos = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong maximumNanos = new AtomicLong();
+
+	@Builder
+	@Data
+	public static class Snapshot {
+		private final long count;
+		private final double meanMillis;
+		private final double minimumMillis;
+		private final double maximumMillis;
+		private final double p50Millis;
+		private final double p90Millis;
+		private final double p99Millis;
+		private final double p999Millis;
+	}
+
+	public void record(long elapsedNanos) {
+		long nanos = Math.max(0, elapsedNanos);
+		bucketCounts.incrementAndGet(bucketIndex(nanos));
+		count.increment();
+		totalNanos.add(nanos);
+		long currentMinimumNanos = minimumNanos.get();
+		while ((nanos < currentMinimumNanos)
+				&& (minimumNanos.compareAndSet(currentMinimumNanos, nanos) == false)) {
+			currentMinimumNanos = minimumNanos.get();
+		}
+		long currentMaximumNanos = maximumNanos.get();
+		while ((nanos > currentMaximumNanos)
+				&& (maximumNanos.compareAndSet(currentMaximumNanos, nanos) == false)) {
+			currentMaximumNanos = maximumNanos.get();
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	public long getMaximumNanos() {
+		return maximumNanos.get();
+	}
+
+	/**
+	 *
+	 * @param percentile e.g. 99.9
+	 * @return the highest value in the bucket holding the percentile, capped at
+	 *         the maximum recorded; 0 when nothing was recorded
+	 *
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long totalCount = 0;
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			totalCount += bucketCounts.get(index);
+		}
+		return getValueAtPercentile(percentile, totalCount);
+	}
+
+	public Snapshot getSnapshot() {
+		long totalCount = 0;
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			totalCount += bucketCounts.get(index);
+		}
+		long maximum = maximumNanos.get();
+		return Snapshot.builder()//
+				.count(totalCount)//
+				.meanMillis((totalCount == 0) ? 0 : toMillis(totalNanos.sum()) / totalCount)//
+				.minimumMillis((totalCount == 0) ? 0 : toMillis(minimumNanos.get()))//
+				.maximumMillis(toMillis(maximum))//
+				.p50Millis(toMillis(getValueAtPercentile(50, totalCount)))//
+				.p90Millis(toMillis(getValueAtPercentile(90, totalCount)))//
+				.p99Millis(toMillis(getValueAtPercentile(99, totalCount)))//
+				.p999Millis(toMillis(getValueAtPercentile(99.9, totalCount)))//
+				.build();
+	}
+
+	/**
+	 *
+	 * Not atomic with concurrent recording, a value recorded meanwhile may be
+	 * partly kept.
+	 *
+	 */
+	public void reset() {
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			bucketCounts.set(index, 0);
+		}
+		count.reset();
+		totalNanos.reset();
+		minimumNanos.set(Long.MAX_VALUE);
+		maximumNanos.set(0);
+	}
+
+	private long getValueAtPercentile(double percentile, long totalCount) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		long targetCount = Math.max(1, (long) Math.ceil(totalCount * Math.min(100, percentile) / 100));
+		long cumulativeCount = 0;
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			cumulativeCount += bucketCounts.get(index);
+			if (cumulativeCount >= targetCount) {
+				return Math.min(bucketUpperBound(index), maximumNanos.get());
+			}
+		}
+		return maximumNanos.get();
+	}
+
+	static int bucketIndex(long nanos) {
+		if (nanos < SUB_BUCKET_COUNT) {
+			return (int) nanos;
+		}
+		int highestBit = 63 - Long.numberOfLeadingZeros(nanos);
+		int shift = highestBit - SUB_BUCKET_BITS;
+		int subBucket = (int) (nanos >>> shift) - SUB_BUCKET_COUNT;
+		return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+		long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+		long upperBound = ((SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+		// The last bucket would overflow
+		return (upperBound < 0) ? Long.MAX_VALUE : upperBound;
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
@@ -0,0 +1,218 @@
+package com.dieharddev.toolbox;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *
+ * Splits text into lines on "\n" or "\r\n" without regular expressions.
+ *
+ * <p>
+ *
+ * The in-memory methods keep {@code string.split("\\r?\\n", -1)} semantics: a
+ * trailing line break yields a trailing empty line, and "" is one empty line.
+ * The {@link Reader} based methods follow {@link java.io.BufferedReader#lines()}
+ * instead and drop the empty line after a final line break; they hold one line
+ * at a time, whatever the size of the input.
+ *
+ * </p>
+ *
+ */
+public final class LineScanner {
+	private LineScanner() {
+	}
+
+	public static String[] split(String string) {
+		int lineCount = 1;
+		for (int index = string.indexOf('\n'); index >= 0; index = string.indexOf('\n', index + 1)) {
+			lineCount++;
+		}
+		String[] lines = new String[lineCount];
+		int lineStart = 0;
+		int lineIndex = 0;
+		for (int index = string.indexOf('\n'); index >= 0; index = string.indexOf('\n', lineStart)) {
+			lines[lineIndex++] = string.substring(lineStart, lineEnd(string, lineStart, index));
+			lineStart = index + 1;
+		}
+		lines[lineIndex] = string.substring(lineStart);
+		return lines;
+	}
+
+	public static List<String> splitToList(String string) {
+		List<String> lines = new ArrayList<String>();
+		int lineStart = 0;
+		for (int index = string.indexOf('\n'); index >= 0; index = string.indexOf('\n', lineStart)) {
+			lines.add(string.substring(lineStart, lineEnd(string, lineStart, index)));
+			lineStart = index + 1;
+		}
+		lines.add(string.substring(lineStart));
+		return lines;
+	}
+
+	/**
+	 *
+	 * Lines as read-only views over {@code text}, nothing is copied. Call
+	 * {@code toString()} on a view to keep it.
+	 *
+	 */
+	public static Iterator<CharSequence> lineViews(CharSequence text) {
+		return new Iterator<CharSequence>() {
+			private int lineStart = 0;
+
+			@Override
+			public boolean hasNext() {
+				return lineStart <= text.length();
+			}
+
+			@Override
+			public CharSequence next() {
+				if (hasNext() == false) {
+					throw new NoSuchElementException();
+				}
+				int index = lineStart;
+				while ((index < text.length()) && (text.charAt(index) != '\n')) {
+					index++;
+				}
+				int end = (index < text.length()) ? lineEnd(text, lineStart, index) : index;
+				CharSequence line = CharBuffer.wrap(text, lineStart, end);
+				lineStart = index + 1;
+				return line;
+			}
+		};
+	}
+
+	public static Stream<String> lines(CharSequence text) {
+		Iterator<CharSequence> lineViews = lineViews(text);
+		return toStream(new Iterator<String>() {
+			@Override
+			public boolean hasNext() {
+				return lineViews.hasNext();
+			}
+
+			@Override
+			public String next() {
+				return lineViews.next().toString();
+			}
+		});
+	}
+
+	/**
+	 *
+	 * Lazily reads lines from the reader; closing the stream closes the reader.
+	 *
+	 */
+	public static Stream<String> lines(Reader reader) {
+		ReaderLineIterator readerLineIterator = new ReaderLineIterator(reader);
+		return toStream(readerLineIterator).onClose(readerLineIterator);
+	}
+
+	private static int lineEnd(CharSequence text, int lineStart, int newlineIndex) {
+		if ((newlineIndex > lineStart) && (text.charAt(newlineIndex - 1) == '\r')) {
+			return newlineIndex - 1;
+		}
+		return newlineIndex;
+	}
+
+	private static <T> Stream<T> toStream(Iterator<T> iterator) {
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	private static final class ReaderLineIterator implements Iterator<String>, Runnable {
+		private final Reader reader;
+		private final char[] buffer = new char[8 * 1024];
+		private final StringBuilder lineBuilder = new StringBuilder();
+		private int position;
+		private int limit;
+		private boolean endOfInput;
+		private String nextLine;
+
+		ReaderLineIterator(Reader reader) {
+			super();
+			this.reader = reader;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (nextLine == null) {
+				nextLine = readLine();
+			}
+			return nextLine != null;
+		}
+
+		@Override
+		public String next() {
+			if (hasNext() == false) {
+				throw new NoSuchElementException();
+			}
+			String line = nextLine;
+			nextLine = null;
+			return line;
+		}
+
+		private String readLine() {
+			lineBuilder.setLength(0);
+			boolean readAnything = false;
+			while (true) {
+				if (position == limit) {
+					if (endOfInput == true) {
+						return (readAnything == true) ? lineBuilder.toString() : null;
+					}
+					fill();
+					continue;
+				}
+				readAnything = true;
+				int index = position;
+				while ((index < limit) && (buffer[index] != '\n')) {
+					index++;
+				}
+				lineBuilder.append(buffer, position, index - position);
+				if (index == limit) {
+					position = limit;
+					continue;
+				}
+				position = index + 1;
+				int length = lineBuilder.length();
+				if ((length > 0) && (lineBuilder.charAt(length - 1) == '\r')) {
+					lineBuilder.setLength(length - 1);
+				}
+				return lineBuilder.toString();
+			}
+		}
+
+		private void fill() {
+			try {
+				int count = reader.read(buffer);
+				if (count < 0) {
+					endOfInput = true;
+					position = 0;
+					limit = 0;
+				} else {
+					position = 0;
+					limit = count;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package com.dieharddev.toolbox;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ *
+ * Logger for one class or category, writing through {@link LogitSink}. Levels
+ * are set per category name and inherited along its dots, "com.acme" applies to
+ * "com.acme.Foo" unless that has its own; the root level applies to the rest.
+ *
+ * <p>
+ *
+ * Each logger caches its effective level together with the generation of the
+ * level settings, so checking a level costs two volatile reads and no lock;
+ * {@link #setLevel(String, LogitLevel)} bumps the generation and every logger
+ * picks the change up on its next call. Use the {@link Supplier} or "{}"
+ * overloads so filtered messages are never built.
+ *
+ * </p>
+ *
+ */
+public final class Logit {
+	public static final String ROOT_CATEGORY = "";
+
+	private static final Map<String, LogitLevel> configuredLevels = new ConcurrentHashMap<String, LogitLevel>();
+	private static final AtomicInteger levelsGeneration = new AtomicInteger();
+	private static final Map<String, Logit> logits = new ConcurrentHashMap<String, Logit>();
+	private static final ClassValue<Logit> classLogits = new ClassValue<Logit>() {
+		@Override
+		protected Logit computeValue(Class<?> type) {
+			return getLogit(type.getName());
+		}
+	};
+
+	static {
+		configuredLevels.put(ROOT_CATEGORY, LogitLevel.Error);
+	}
+
+	private final String category;
+	private volatile EffectiveLevel effectiveLevel = new EffectiveLevel(null, -1);
+
+	private Logit(String category) {
+		super();
+		this.category = category;
+	}
+
+	public static Logit getLogit(Class<?> type) {
+		return classLogits.get(type);
+	}
+
+	public static Logit getLogit(String category) {
+		Logit logit = logits.get(category);
+		if (logit == null) {
+			Logit newLogit = new Logit(category);
+			logit = logits.putIfAbsent(category, newLogit);
+			if (logit == null) {
+				logit = newLogit;
+			}
+		}
+		return logit;
+	}
+
+	/**
+	 *
+	 * @param logitLevel null removes the category's own level, it inherits again
+	 *
+	 */
+	public static void setLevel(String category, LogitLevel logitLevel) {
+		if (logitLevel == null) {
+			if (ROOT_CATEGORY.equals(category) == true) {
+				throw new IllegalArgumentException("setLevel(): The root level can not be removed");
+			}
+			configuredLevels.remove(category);
+		} else {
+			configuredLevels.put(category, logitLevel);
+		}
+		levelsGeneration.incrementAndGet();
+	}
+
+	public static void setLevel(Class<?> type, LogitLevel logitLevel) {
+		setLevel(type.getName(), logitLevel);
+	}
+
+	public static void setRootLevel(LogitLevel logitLevel) {
+		setLevel(ROOT_CATEGORY, logitLevel);
+	}
+
+	public static LogitLevel getRootLevel() {
+		return configuredLevels.get(ROOT_CATEGORY);
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public LogitLevel getLevel() {
+		int generation = levelsGeneration.get();
+		EffectiveLevel currentEffectiveLevel = effectiveLevel;
+		if (currentEffectiveLevel.generation != generation) {
+			currentEffectiveLevel = new EffectiveLevel(resolveLevel(category), generation);
+			effectiveLevel = currentEffectiveLevel;
+		}
+		return currentEffectiveLevel.logitLevel;
+	}
+
+	public boolean isEnabled(LogitLevel logitLevel) {
+		return isEnabled(logitLevel, getLevel());
+	}
+
+	public boolean isErrorEnabled() {
+		return isEnabled(LogitLevel.Error);
+	}
+
+	public boolean isInfoEnabled() {
+		return isEnabled(LogitLevel.Info);
+	}
+
+	public boolean isDebugEnabled() {
+		return isEnabled(LogitLevel.Debug);
+	}
+
+	public void log(LogitLevel logitLevel, String message) {
+		if (isEnabled(logitLevel) == true) {
+			LogitSink.get().log(logitLevel, message);
+		}
+	}
+
+	public void log(LogitLevel logitLevel, Supplier<String> messageSupplier) {
+		if (isEnabled(logitLevel) == true) {
+			LogitSink.get().log(logitLevel, messageSupplier.get());
+		}
+	}
+
+	public void log(LogitLevel logitLevel, String pattern, Object argument) {
+		if (isEnabled(logitLevel) == true) {
+			LogitSink.get().log(logitLevel, format(pattern, argument));
+		}
+	}
+
+	public void log(LogitLevel logitLevel, String pattern, Object argument1, Object argument2) {
+		if (isEnabled(logitLevel) == true) {
+			LogitSink.get().log(logitLevel, format(pattern, argument1, argument2));
+		}
+	}
+
+	public void log(LogitLevel logitLevel, String pattern, Object... arguments) {
+		if (isEnabled(logitLevel) == true) {
+			LogitSink.get().log(logitLevel, format(pattern, arguments));
+		}
+	}
+
+	public void error(String message) {
+		log(LogitLevel.Error, message);
+	}
+
+	public void error(Supplier<String> messageSupplier) {
+		log(LogitLevel.Error, messageSupplier);
+	}
+
+	public void error(String pattern, Object argument) {
+		log(LogitLevel.Error, pattern, argument);
+	}
+
+	public void error(String pattern, Object argument1, Object argument2) {
+		log(LogitLevel.Error, pattern, argument1, argument2);
+	}
+
+	public void error(String pattern, Object... arguments) {
+		log(LogitLevel.Error, pattern, arguments);
+	}
+
+	public void info(String message) {
+		log(LogitLevel.Info, message);
+	}
+
+	public void info(Supplier<String> messageSupplier) {
+		log(LogitLevel.Info, messageSupplier);
+	}
+
+	public void info(String pattern, Object argument) {
+		log(LogitLevel.Info, pattern, argument);
+	}
+
+	public void info(String pattern, Object argument1, Object argument2) {
+		log(LogitLevel.Info, pattern, argument1, argument2);
+	}
+
+	public void info(String pattern, Object... arguments) {
+		log(LogitLevel.Info, pattern, arguments);
+	}
+
+	public void debug(String message) {
+		log(LogitLevel.Debug, message);
+	}
+
+	public void debug(Supplier<String> messageSupplier) {
+		log(LogitLevel.Debug, messageSupplier);
+	}
+
+	public void debug(String pattern, Object argument) {
+		log(LogitLevel.Debug, pattern, argument);
+	}
+
+	public void debug(String pattern, Object argument1, Object argument2) {
+		log(LogitLevel.Debug, pattern, argument1, argument2);
+	}
+
+	public void debug(String pattern, Object... arguments) {
+		log(LogitLevel.Debug, pattern, arguments);
+	}
+
+	/**
+	 *
+	 * Levels are ordered Error, Info, Debug: a threshold of Info lets Error and
+	 * Info messages through.
+	 *
+	 */
+	static boolean isEnabled(LogitLevel logitLevel, LogitLevel threshold) {
+		return logitLevel.ordinal() <= threshold.ordinal();
+	}
+
+	/**
+	 *
+	 * Replaces each "{}" in {@code pattern} with the next argument; extra
+	 * arguments are ignored, missing ones leave the "{}" in place.
+	 *
+	 */
+	public static String format(String pattern, Object... arguments) {
+		StringBuilder stringBuilder = new StringBuilder(pattern.length() + 16 * arguments.length);
+		int start = 0;
+		int argumentIndex = 0;
+		int placeholderIndex;
+		while ((argumentIndex < arguments.length) && ((placeholderIndex = pattern.indexOf("{}", start)) >= 0)) {
+			stringBuilder.append(pattern, start, placeholderIndex).append(arguments[argumentIndex++]);
+			start = placeholderIndex + 2;
+		}
+		return stringBuilder.append(pattern, start, pattern.length()).toString();
+	}
+
+	private static LogitLevel resolveLevel(String category) {
+		String name = category;
+		while (true) {
+			LogitLevel logitLevel = configuredLevels.get(name);
+			if (logitLevel != null) {
+				return logitLevel;
+			}
+			int lastDot = name.lastIndexOf('.');
+			if (lastDot < 0) {
+				return configuredLevels.get(ROOT_CATEGORY);
+			}
+			name = name.substring(0, lastDot);
+		}
+	}
+
+	private static final class EffectiveLevel {
+		private final LogitLevel logitLevel;
+		private final int generation;
+
+		EffectiveLevel(LogitLevel logitLevel, int generation) {
+			super();
+			this.logitLevel = logitLevel;
+			this.generation = generation;
+		}
+	}
+}
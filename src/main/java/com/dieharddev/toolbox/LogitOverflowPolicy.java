@@ -0,0 +1,23 @@
+package com.dieharddev.toolbox;
+
+/**
+ *
+ * What {@link LogitSink} does with a message when its buffer is full.
+ *
+ */
+public enum LogitOverflowPolicy {
+	/**
+	 * Discard the message, the caller never waits. Dropped messages are counted
+	 * and reported by the sink.
+	 */
+	DROP,
+	/**
+	 * Wait for the writer to make room, nothing is lost.
+	 */
+	BLOCK,
+	/**
+	 * Keep one message in every {@code sampleRate} by waiting for room, discard
+	 * the others.
+	 */
+	SAMPLE;
+}
@@ -0,0 +1,364 @@
+package com.dieharddev.toolbox;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.Builder;
+
+/**
+ *
+ * Asynchronous backend of the {@link ToolBox} logit methods. Callers put their
+ * message in a bounded lock-free ring buffer and return; one daemon thread
+ * drains it in batches into a {@link LogitWriter}, so callers never contend on
+ * the {@link System#out} lock or wait for console or disk I/O.
+ *
+ * <p>
+ *
+ * When the buffer is full the {@link LogitOverflowPolicy} decides whether the
+ * caller waits or the message is dropped; dropped messages are counted and
+ * reported through the writer. The installed sink is flushed and closed by a
+ * shutdown hook.
+ *
+ * </p>
+ *
+ */
+public final class LogitSink implements AutoCloseable {
+	public static final int DEFAULT_CAPACITY = 8 * 1024;
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	public static final int DEFAULT_SAMPLE_RATE = 100;
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+
+	private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final Object installLock = new Object();
+	private static volatile LogitSink installedLogitSink;
+
+	private final LogitWriter logitWriter;
+	private final LogitOverflowPolicy overflowPolicy;
+	private final int sampleRate;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final RingBuffer ringBuffer;
+	private final AtomicLong writtenCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong overflowCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final Thread writerThread;
+	private volatile boolean writerParked;
+	private volatile boolean closed;
+	private long reportedDroppedCount;
+
+	@Builder
+	private LogitSink(LogitWriter logitWriter, LogitOverflowPolicy overflowPolicy, int capacity, int sampleRate,
+			int batchSize, long flushIntervalMillis) {
+		super();
+		this.logitWriter = (logitWriter == null) ? LogitWriter.stdout() : logitWriter;
+		this.overflowPolicy = (overflowPolicy == null) ? LogitOverflowPolicy.BLOCK : overflowPolicy;
+		this.sampleRate = (sampleRate <= 0) ? DEFAULT_SAMPLE_RATE : sampleRate;
+		this.batchSize = (batchSize <= 0) ? DEFAULT_BATCH_SIZE : batchSize;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS
+				.toNanos((flushIntervalMillis <= 0) ? DEFAULT_FLUSH_INTERVAL_MILLIS : flushIntervalMillis);
+		this.ringBuffer = new RingBuffer((capacity <= 0) ? DEFAULT_CAPACITY : capacity);
+		this.writerThread = NamedThreadFactory.getDaemonThreadFactory("LogitSink").newThread(new Runnable() {
+			@Override
+			public void run() {
+				drainUntilClosed();
+			}
+		});
+		this.writerThread.start();
+	}
+
+	/**
+	 *
+	 * @return the installed sink, a stdout sink with the default settings unless
+	 *         {@link #install(LogitSink)} was called
+	 *
+	 */
+	public static LogitSink get() {
+		LogitSink logitSink = installedLogitSink;
+		if (logitSink == null) {
+			synchronized (installLock) {
+				if (installedLogitSink == null) {
+					install(LogitSink.builder().build());
+				}
+				logitSink = installedLogitSink;
+			}
+		}
+		return logitSink;
+	}
+
+	/**
+	 *
+	 * Makes {@code logitSink} the target of the logit methods. The previous sink
+	 * is flushed and closed.
+	 *
+	 */
+	public static void install(LogitSink logitSink) {
+		LogitSink previousLogitSink;
+		synchronized (installLock) {
+			if (installedLogitSink == null) {
+				Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+					@Override
+					public void run() {
+						installedLogitSink.close();
+					}
+				}, "LogitSink-shutdown"));
+			}
+			previousLogitSink = installedLogitSink;
+			installedLogitSink = logitSink;
+		}
+		if ((previousLogitSink != null) && (previousLogitSink != logitSink)) {
+			previousLogitSink.close();
+		}
+	}
+
+	public void log(LogitLevel logitLevel, String message) {
+		if (closed == true) {
+			writeDirectly(logitLevel, message);
+			return;
+		}
+		Entry entry = new Entry(logitLevel, message);
+		if (ringBuffer.offer(entry) == false) {
+			switch (overflowPolicy) {
+			case DROP:
+				droppedCount.incrementAndGet();
+				return;
+			case SAMPLE:
+				if ((overflowCount.incrementAndGet() % sampleRate) != 0) {
+					droppedCount.incrementAndGet();
+					return;
+				}
+				offerBlocking(entry);
+				break;
+			case BLOCK:
+			default:
+				offerBlocking(entry);
+				break;
+			}
+		}
+		if (writerParked == true) {
+			LockSupport.unpark(writerThread);
+		}
+	}
+
+	/**
+	 *
+	 * Waits until everything logged before the call is written and flushed.
+	 *
+	 * @return false when that did not happen within the timeout, or the writer
+	 *         failed in the meantime
+	 *
+	 */
+	public boolean flush(long timeout, TimeUnit unit) {
+		long failedCountBefore = failedCount.get();
+		long target = ringBuffer.getClaimedCount();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (writtenCount.get() < target) {
+			if ((closed == true) && (writerThread.isAlive() == false)) {
+				break;
+			}
+			if (System.nanoTime() - deadline >= 0) {
+				return false;
+			}
+			LockSupport.unpark(writerThread);
+			LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+		}
+		return (writtenCount.get() >= target) && (failedCount.get() == failedCountBefore);
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	public long getWrittenCount() {
+		return writtenCount.get();
+	}
+
+	// Batches and direct writes the writer failed on; their messages are lost
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 *
+	 * Writes what is buffered and closes the writer. Messages logged afterwards
+	 * are written on the caller's thread.
+	 *
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed == true) {
+				return;
+			}
+			closed = true;
+		}
+		LockSupport.unpark(writerThread);
+		try {
+			writerThread.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (this) {
+			try {
+				logitWriter.close();
+			} catch (IOException | RuntimeException e) {
+				reportWriterFailure(e);
+			}
+		}
+	}
+
+	private void offerBlocking(Entry entry) {
+		while (ringBuffer.offer(entry) == false) {
+			if (closed == true) {
+				writeDirectly(entry.logitLevel, entry.message);
+				return;
+			}
+			LockSupport.unpark(writerThread);
+			LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+		}
+	}
+
+	private synchronized void writeDirectly(LogitLevel logitLevel, String message) {
+		try {
+			logitWriter.write(logitLevel, message);
+			logitWriter.flush();
+		} catch (IOException | RuntimeException e) {
+			failedCount.incrementAndGet();
+			reportWriterFailure(e);
+		}
+	}
+
+	private void drainUntilClosed() {
+		while (true) {
+			boolean wasClosed = closed;
+			int drainedCount = drainBatch();
+			if (drainedCount > 0) {
+				continue;
+			}
+			if ((wasClosed == true) && (ringBuffer.isEmpty() == true)) {
+				return;
+			}
+			writerParked = true;
+			if (ringBuffer.isEmpty() == true) {
+				LockSupport.parkNanos(this, flushIntervalNanos);
+			}
+			writerParked = false;
+		}
+	}
+
+	private synchronized int drainBatch() {
+		int drainedCount = 0;
+		boolean wroteAnything = false;
+		try {
+			Entry entry;
+			while ((drainedCount < batchSize) && ((entry = ringBuffer.poll()) != null)) {
+				logitWriter.write(entry.logitLevel, entry.message);
+				drainedCount++;
+			}
+			long currentDroppedCount = droppedCount.get();
+			if (currentDroppedCount != reportedDroppedCount) {
+				logitWriter.write(LogitLevel.Error, "LogitSink: dropped " + (currentDroppedCount - reportedDroppedCount)
+						+ " messages, the buffer was full");
+				reportedDroppedCount = currentDroppedCount;
+				wroteAnything = true;
+			}
+			if ((drainedCount > 0) || (wroteAnything == true)) {
+				logitWriter.flush();
+			}
+		} catch (IOException | RuntimeException e) {
+			failedCount.incrementAndGet();
+			reportWriterFailure(e);
+		}
+		writtenCount.addAndGet(drainedCount);
+		return drainedCount;
+	}
+
+	private static void reportWriterFailure(Exception e) {
+		// The writer is the log, so the failure can only go to stderr
+		System.err.println("LogitSink: Could not write log messages, " + e);
+	}
+
+	private static final class Entry {
+		private final LogitLevel logitLevel;
+		private final String message;
+
+		Entry(LogitLevel logitLevel, String message) {
+			super();
+			this.logitLevel = logitLevel;
+			this.message = message;
+		}
+	}
+
+	/**
+	 *
+	 * Bounded multi-producer queue after Dmitry Vyukov's design: each slot holds a
+	 * sequence number telling producers and the consumer whose turn it is, so a
+	 * successful offer costs one compare-and-set and no lock. Only the writer
+	 * thread polls.
+	 *
+	 */
+	private static final class RingBuffer {
+		private final int mask;
+		private final AtomicLongArray sequences;
+		private final AtomicReferenceArray<Entry> entries;
+		private final AtomicLong enqueuePosition = new AtomicLong();
+		private volatile long dequeuePosition;
+
+		RingBuffer(int capacity) {
+			super();
+			int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+			this.mask = size - 1;
+			this.sequences = new AtomicLongArray(size);
+			this.entries = new AtomicReferenceArray<Entry>(size);
+			for (int index = 0; index < size; index++) {
+				sequences.set(index, index);
+			}
+		}
+
+		boolean offer(Entry entry) {
+			long position = enqueuePosition.get();
+			while (true) {
+				int index = (int) (position & mask);
+				long difference = sequences.get(index) - position;
+				if (difference == 0) {
+					if (enqueuePosition.compareAndSet(position, position + 1) == true) {
+						entries.lazySet(index, entry);
+						sequences.set(index, position + 1);
+						return true;
+					}
+					position = enqueuePosition.get();
+				} else if (difference < 0) {
+					return false;
+				} else {
+					position = enqueuePosition.get();
+				}
+			}
+		}
+
+		Entry poll() {
+			long position = dequeuePosition;
+			int index = (int) (position & mask);
+			if (sequences.get(index) != position + 1) {
+				// Empty, or a producer claimed the slot and is still filling it
+				return null;
+			}
+			Entry entry = entries.get(index);
+			entries.lazySet(index, null);
+			sequences.set(index, position + mask + 1);
+			dequeuePosition = position + 1;
+			return entry;
+		}
+
+		boolean isEmpty() {
+			return dequeuePosition == enqueuePosition.get();
+		}
+
+		long getClaimedCount() {
+			return enqueuePosition.get();
+		}
+	}
+}
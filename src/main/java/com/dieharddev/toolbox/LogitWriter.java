@@ -0,0 +1,217 @@
+package com.dieharddev.toolbox;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Destination of the lines drained by {@link LogitSink}. Only the sink's writer
+ * thread calls it: {@link #write(LogitLevel, String)} for every line of a batch,
+ * then {@link #flush()} once the batch is done.
+ *
+ */
+public interface LogitWriter extends Closeable {
+	void write(LogitLevel logitLevel, String message) throws IOException;
+
+	void flush() throws IOException;
+
+	@Override
+	default void close() throws IOException {
+		flush();
+	}
+
+	/**
+	 *
+	 * Writes to whatever {@link System#out} is when a batch is flushed, one
+	 * print per batch.
+	 *
+	 */
+	public static LogitWriter stdout() {
+		return new StdoutWriter();
+	}
+
+	/**
+	 *
+	 * Appends to {@code file}; once it reaches {@code maximumFileSize} bytes it is
+	 * renamed to "file.1", the earlier "file.1" to "file.2" and so on, keeping
+	 * {@code maximumBackupFiles} of them. Characters the charset cannot encode
+	 * are replaced, and after a failed write the file is reopened on the next
+	 * one.
+	 *
+	 */
+	public static LogitWriter rollingFile(File file, long maximumFileSize, int maximumBackupFiles) {
+		return new RollingFileWriter(file, StandardCharsets.UTF_8, maximumFileSize, maximumBackupFiles);
+	}
+
+	/**
+	 *
+	 * Hands the lines to slf4j, and from there to whichever binding is deployed,
+	 * e.g. log4j2 through log4j-slf4j-impl.
+	 *
+	 */
+	public static LogitWriter slf4j(String loggerName) {
+		return new Slf4jWriter(LoggerFactory.getLogger(loggerName));
+	}
+
+	public static class StdoutWriter implements LogitWriter {
+		private final StringBuilder batch = new StringBuilder();
+
+		@Override
+		public void write(LogitLevel logitLevel, String message) {
+			batch.append(message).append(System.lineSeparator());
+		}
+
+		@Override
+		public void flush() {
+			if (batch.length() > 0) {
+				System.out.print(batch);
+				System.out.flush();
+				batch.setLength(0);
+			}
+		}
+	}
+
+	public static class RollingFileWriter implements LogitWriter {
+		private final File file;
+		private final Charset charset;
+		private final long maximumFileSize;
+		private final int maximumBackupFiles;
+		private final String lineSeparator = System.lineSeparator();
+		private Writer writer;
+		private long fileSize;
+
+		public RollingFileWriter(File file, Charset charset, long maximumFileSize, int maximumBackupFiles) {
+			super();
+			this.file = file.getAbsoluteFile();
+			this.charset = charset;
+			this.maximumFileSize = maximumFileSize;
+			this.maximumBackupFiles = maximumBackupFiles;
+		}
+
+		@Override
+		public void write(LogitLevel logitLevel, String message) throws IOException {
+			try {
+				if (writer == null) {
+					open();
+				} else if (fileSize >= maximumFileSize) {
+					writer.close();
+					writer = null;
+					roll();
+					open();
+				}
+				writer.write(message);
+				writer.write(lineSeparator);
+			} catch (IOException | RuntimeException e) {
+				discardWriter();
+				throw e;
+			}
+			// Close enough for rolling, exact for ASCII
+			fileSize += message.length() + lineSeparator.length();
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (writer != null) {
+				try {
+					writer.flush();
+				} catch (IOException | RuntimeException e) {
+					discardWriter();
+					throw e;
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (writer != null) {
+				writer.close();
+				writer = null;
+			}
+		}
+
+		private void open() throws IOException {
+			Files.createDirectories(file.toPath().getParent());
+			FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+			fileSize = fileChannel.size();
+			writer = new BufferedWriter(Channels.newWriter(fileChannel, charset.newEncoder()//
+					.onMalformedInput(CodingErrorAction.REPLACE)//
+					.onUnmappableCharacter(CodingErrorAction.REPLACE), ToolBox.FILE_BUFFER_SIZE),
+					ToolBox.FILE_BUFFER_SIZE);
+		}
+
+		// A writer that failed once may keep failing, the next write opens a new one
+		private void discardWriter() {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException | RuntimeException e) {
+					// Already failed, the caller reports the first error
+				}
+				writer = null;
+			}
+		}
+
+		private void roll() throws IOException {
+			Path path = file.toPath();
+			if (maximumBackupFiles <= 0) {
+				Files.deleteIfExists(path);
+				return;
+			}
+			Files.deleteIfExists(path.resolveSibling(file.getName() + "." + maximumBackupFiles));
+			for (int index = maximumBackupFiles - 1; index >= 1; index--) {
+				Path backup = path.resolveSibling(file.getName() + "." + index);
+				if (Files.exists(backup) == true) {
+					Files.move(backup, path.resolveSibling(file.getName() + "." + (index + 1)),
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			Files.move(path, path.resolveSibling(file.getName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	public static class Slf4jWriter implements LogitWriter {
+		private final Logger logger;
+
+		public Slf4jWriter(Logger logger) {
+			super();
+			this.logger = logger;
+		}
+
+		@Override
+		public void write(LogitLevel logitLevel, String message) {
+			switch (logitLevel) {
+			case Error:
+				logger.error(message);
+				break;
+			case Info:
+				logger.info(message);
+				break;
+			case Debug:
+			default:
+				logger.debug(message);
+				break;
+			}
+		}
+
+		@Override
+		public void flush() {
+			// slf4j has no flush, the binding manages its own appenders
+		}
+	}
+}
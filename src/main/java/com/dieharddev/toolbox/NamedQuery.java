@@ -0,0 +1,138 @@
+package com.dieharddev.toolbox;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * SQL text registered under a query name, plus timing for every execution of
+ * that name through the {@link ToolBox} SQL helpers.
+ *
+ */
+public final class NamedQuery {
+	private static final ConcurrentHashMap<String, NamedQuery> namedQueries = new ConcurrentHashMap<>();
+
+	private final String queryName;
+	private final String sqlString;
+	private final int fetchSize;
+	private final LongAdder executionCount = new LongAdder();
+	private final LongAdder failureCount = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maximumNanos = new AtomicLong();
+	private final ToolBoxMetrics.Timer timer;
+
+	public static NamedQuery register(String queryName, String sqlString, int fetchSize) {
+		ValueChecks.get().checkNotEmptyParameter(queryName, "queryName");
+		ValueChecks.get().checkNotEmptyParameter(sqlString, "sqlString");
+		NamedQuery namedQuery = new NamedQuery(queryName, sqlString, fetchSize);
+		NamedQuery existingNamedQuery = namedQueries.putIfAbsent(queryName, namedQuery);
+		if (existingNamedQuery == null) {
+			return namedQuery;
+		}
+		if ((existingNamedQuery.sqlString.equals(sqlString) == false) || (existingNamedQuery.fetchSize != fetchSize)) {
+			throw new IllegalStateException(
+					"Query " + queryName + " is already registered with different SQL or fetch size");
+		}
+		return existingNamedQuery;
+	}
+
+	public static NamedQuery get(String queryName) {
+		NamedQuery namedQuery = namedQueries.get(queryName);
+		if (namedQuery == null) {
+			throw new IllegalArgumentException("No query registered as " + queryName);
+		}
+		return namedQuery;
+	}
+
+	/**
+	 *
+	 * @return the registered query, or null when the name is not registered
+	 *
+	 */
+	public static NamedQuery find(String queryName) {
+		return namedQueries.get(queryName);
+	}
+
+	public static Collection<NamedQuery> getAll() {
+		return Collections.unmodifiableCollection(namedQueries.values());
+	}
+
+	private NamedQuery(String queryName, String sqlString, int fetchSize) {
+		super();
+		this.queryName = queryName;
+		this.sqlString = sqlString;
+		this.fetchSize = fetchSize;
+		this.timer = ToolBoxMetrics.timer("namedQuery." + queryName);
+	}
+
+	public String getQueryName() {
+		return queryName;
+	}
+
+	public String getSqlString() {
+		return sqlString;
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	public void record(long elapsedNanos, boolean failed) {
+		executionCount.increment();
+		totalNanos.add(elapsedNanos);
+		timer.record(elapsedNanos);
+		if (failed == true) {
+			failureCount.increment();
+		}
+		long currentMaximumNanos = maximumNanos.get();
+		while ((elapsedNanos > currentMaximumNanos)
+				&& (maximumNanos.compareAndSet(currentMaximumNanos, elapsedNanos) == false)) {
+			currentMaximumNanos = maximumNanos.get();
+		}
+	}
+
+	public long getExecutionCount() {
+		return executionCount.sum();
+	}
+
+	public long getFailureCount() {
+		return failureCount.sum();
+	}
+
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	public long getMaximumNanos() {
+		return maximumNanos.get();
+	}
+
+	/**
+	 *
+	 * Latency percentiles, also exported by {@link ToolBoxMetrics} as
+	 * "namedQuery.&lt;queryName&gt;".
+	 *
+	 */
+	public LatencyHistogram getLatencyHistogram() {
+		return timer.getLatencyHistogram();
+	}
+
+	public double getAverageMillis() {
+		long count = executionCount.sum();
+		if (count == 0) {
+			return 0;
+		}
+		return totalNanos.sum() / 1_000_000.0 / count;
+	}
+
+	@Override
+	public String toString() {
+		return "NamedQuery(queryName=" + queryName + ", executionCount=" + getExecutionCount() + ", failureCount="
+				+ getFailureCount() + ", averageMillis=" + getAverageMillis() + ", maximumMillis="
+				+ (getMaximumNanos() / 1_000_000.0) + ", p99Millis="
+				+ (timer.getLatencyHistogram().getValueAtPercentile(99) / 1_000_000.0) + ")";
+	}
+}
@@ -1,27 +1,105 @@
 package com.dieharddev.toolbox;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import lombok.Builder;
+
+/**
+ *
+ * Names threads "prefix-thread-N". {@link #getNamedThreadFactory(String)} and
+ * {@link #getDaemonThreadFactory(String)} share one factory per prefix, so the
+ * numbering carries on across callers; {@link #builder()} makes an unshared
+ * factory with its own daemon flag, priority, uncaught exception handler, stack
+ * size or virtual threads.
+ *
+ * <p>
+ *
+ * Each factory counts the threads it created and those still running, to make
+ * thread churn visible.
+ *
+ * </p>
+ *
+ */
 public class NamedThreadFactory implements ThreadFactory {
+	/**
+	 * Past this many shared factories, e.g. with generated prefixes, new prefixes
+	 * get an unshared factory instead of growing the registry further.
+	 */
+	public static final int MAXIMUM_SHARED_FACTORIES = 1024;
+
+	private static final ConcurrentMap<String, NamedThreadFactory> namePrefixToNamedThreadFactoryMap //
+			= new ConcurrentHashMap<String, NamedThreadFactory>();
+	private static final VirtualThreadBuilder virtualThreadBuilder = VirtualThreadBuilder.find();
+
 	final ThreadGroup group;
 	final AtomicInteger threadNumber = new AtomicInteger(1);
 	final String namePrefix;
-	private final static Map<String, NamedThreadFactory> namePrefixToNamedThreadFactoryMap = new HashMap<String, NamedThreadFactory>();
+	private final boolean daemon;
+	private final int priority;
+	private final UncaughtExceptionHandler uncaughtExceptionHandler;
+	private final long stackSize;
+	private final boolean virtual;
+	private final AtomicInteger aliveCount = new AtomicInteger();
 
 	public static NamedThreadFactory getNamedThreadFactory(String namePrefix) {
-		if (namePrefixToNamedThreadFactoryMap.containsKey(namePrefix) == false) {
-			namePrefixToNamedThreadFactoryMap.put(namePrefix, new NamedThreadFactory(namePrefix));
+		return getSharedThreadFactory(namePrefix, false);
+	}
+
+	public static NamedThreadFactory getDaemonThreadFactory(String namePrefix) {
+		return getSharedThreadFactory(namePrefix, true);
+	}
+
+	/**
+	 *
+	 * @return the shared factories, e.g. to report their thread counts
+	 *
+	 */
+	public static Collection<NamedThreadFactory> getAll() {
+		return Collections.unmodifiableCollection(namePrefixToNamedThreadFactoryMap.values());
+	}
+
+	public static boolean isVirtualThreadSupported() {
+		return virtualThreadBuilder != null;
+	}
+
+	private static NamedThreadFactory getSharedThreadFactory(String namePrefix, boolean daemon) {
+		ValueChecks.get().checkNotNullParameter(namePrefix, "namePrefix");
+		String key = (daemon == true) ? namePrefix + "\u0000daemon" : namePrefix;
+		NamedThreadFactory namedThreadFactory = namePrefixToNamedThreadFactoryMap.get(key);
+		if (namedThreadFactory != null) {
+			return namedThreadFactory;
 		}
-		NamedThreadFactory result = namePrefixToNamedThreadFactoryMap.put(namePrefix,
-				new NamedThreadFactory(namePrefix));
-		return ValueChecks.get().checkNotNullParameter(result,
-				"Return value for getNamedThreadFactory(" + namePrefix + ")");
+		NamedThreadFactory newNamedThreadFactory = NamedThreadFactory.builder()//
+				.namePrefix(namePrefix)//
+				.daemon(daemon)//
+				.build();
+		if (namePrefixToNamedThreadFactoryMap.size() >= MAXIMUM_SHARED_FACTORIES) {
+			return newNamedThreadFactory;
+		}
+		namedThreadFactory = namePrefixToNamedThreadFactoryMap.putIfAbsent(key, newNamedThreadFactory);
+		return (namedThreadFactory == null) ? newNamedThreadFactory : namedThreadFactory;
 	}
 
-	private NamedThreadFactory(String namePrefix) {
+	/**
+	 *
+	 * @param priority  0 means {@link Thread#NORM_PRIORITY}
+	 * @param stackSize 0 means the JVM default
+	 * @param virtual   falls back to platform threads before Java 21; virtual
+	 *                  threads are always daemon threads and ignore priority and
+	 *                  stack size
+	 *
+	 */
+	@Builder
+	private NamedThreadFactory(String namePrefix, boolean daemon, int priority,
+			UncaughtExceptionHandler uncaughtExceptionHandler, long stackSize, boolean virtual) {
+		ValueChecks.get().checkNotNullParameter(namePrefix, "namePrefix");
 		SecurityManager s = System.getSecurityManager();
 		if (s != null) {
 			group = s.getThreadGroup();
@@ -29,17 +107,120 @@ public class NamedThreadFactory implements ThreadFactory {
 			group = Thread.currentThread().getThreadGroup();
 		}
 		this.namePrefix = namePrefix + "-thread-";
+		this.daemon = daemon;
+		this.priority = (priority == 0) ? Thread.NORM_PRIORITY : priority;
+		this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+		this.stackSize = stackSize;
+		this.virtual = (virtual == true) && (virtualThreadBuilder != null);
 	}
 
 	@Override
 	public Thread newThread(Runnable r) {
-		Thread thread = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
-		if (thread.isDaemon()) {
-			thread.setDaemon(false);
+		Runnable countingRunnable = new Runnable() {
+			@Override
+			public void run() {
+				aliveCount.incrementAndGet();
+				try {
+					r.run();
+				} finally {
+					aliveCount.decrementAndGet();
+				}
+			}
+		};
+		String threadName = namePrefix + threadNumber.getAndIncrement();
+		Thread thread;
+		if (virtual == true) {
+			thread = virtualThreadBuilder.newThread(threadName, countingRunnable);
+		} else {
+			thread = new Thread(group, countingRunnable, threadName, stackSize);
+			if (thread.isDaemon() != daemon) {
+				thread.setDaemon(daemon);
+			}
+			if (thread.getPriority() != priority) {
+				thread.setPriority(priority);
+			}
 		}
-		if (thread.getPriority() != Thread.NORM_PRIORITY) {
-			thread.setPriority(Thread.NORM_PRIORITY);
+		if (uncaughtExceptionHandler != null) {
+			thread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
 		}
 		return thread;
 	}
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public boolean isDaemon() {
+		return (daemon == true) || (virtual == true);
+	}
+
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	public int getCreatedCount() {
+		return threadNumber.get() - 1;
+	}
+
+	/**
+	 *
+	 * @return threads that started running and have not finished yet
+	 *
+	 */
+	public int getAliveCount() {
+		return aliveCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "NamedThreadFactory(namePrefix=" + namePrefix + ", daemon=" + isDaemon() + ", virtual=" + virtual
+				+ ", createdCount=" + getCreatedCount() + ", aliveCount=" + getAliveCount() + ")";
+	}
+
+	/**
+	 *
+	 * Thread.ofVirtual() through reflection, the project still compiles for
+	 * Java 15.
+	 *
+	 */
+	private static final class VirtualThreadBuilder {
+		private final Method ofVirtual;
+		private final Method name;
+		private final Method unstarted;
+
+		private VirtualThreadBuilder(Method ofVirtual, Method name, Method unstarted) {
+			super();
+			this.ofVirtual = ofVirtual;
+			this.name = name;
+			this.unstarted = unstarted;
+		}
+
+		static VirtualThreadBuilder find() {
+			try {
+				Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+				VirtualThreadBuilder virtualThreadBuilder = new VirtualThreadBuilder(
+						Thread.class.getMethod("ofVirtual"), builderClass.getMethod("name", String.class),
+						builderClass.getMethod("unstarted", Runnable.class));
+				// Fails here rather than per thread when preview features are disabled
+				virtualThreadBuilder.newThread("probe", new Runnable() {
+					@Override
+					public void run() {
+					}
+				});
+				return virtualThreadBuilder;
+			} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+				// Before Java 21
+				return null;
+			}
+		}
+
+		Thread newThread(String threadName, Runnable runnable) {
+			try {
+				Object builder = name.invoke(ofVirtual.invoke(null), threadName);
+				return (Thread) unstarted.invoke(builder, runnable);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("newThread(): Could not create virtual thread " + threadName, e);
+			}
+		}
+	}
 }
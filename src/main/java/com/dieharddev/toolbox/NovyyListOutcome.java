@@ -58,13 +58,15 @@ package com.dieharddev.toolbox;
 
 */
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.Preparation;
 
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -130,6 +132,7 @@ public final class NovyyListOutcome<T> implements Outcome<List<T>> {
 	 */
 	private final transient NovyyListOutcome.Mapping<T> mapping;
 	private final int fetchSize;
+	private final int expectedSize;
 
 	/**
 	 * 
@@ -145,24 +148,83 @@ public final class NovyyListOutcome<T> implements Outcome<List<T>> {
 	 * 
 	 */
 	public NovyyListOutcome(int fetchSize, final NovyyListOutcome.Mapping<T> mpg) {
+		this(fetchSize, 0, mpg);
+	}
+
+	/**
+	 * 
+	 * Public ctor.
+	 *
+	 * 
+	 * 
+	 * @param fetchSize
+	 *
+	 * 
+	 * 
+	 * @param expectedSize Expected row count used to pre-size the result, zero
+	 * 
+	 *                     when unknown
+	 * 
+	 * @param mpg          Mapping
+	 * 
+	 */
+	public NovyyListOutcome(int fetchSize, int expectedSize, final NovyyListOutcome.Mapping<T> mpg) {
 		this.mapping = mpg;
 		this.fetchSize = fetchSize;
+		this.expectedSize = expectedSize;
+	}
+
+	/**
+	 * 
+	 * Preparation that applies the fetch size to the statement before it is
+	 * 
+	 * executed, so the driver uses it for the first round trip as well.
+	 * 
+	 */
+	public Preparation fetchSizePreparation() {
+		return new FetchSizePreparation(fetchSize);
 	}
 
 	@Override
 	public List<T> handle(final ResultSet resultSet, final Statement stmt) throws SQLException {
-		final List<T> result = new LinkedList<>();
-		boolean hasNext = resultSet.next();
-		if (hasNext == true) {
+		final List<T> result;
+		if (expectedSize > 0) {
+			result = new ArrayList<>(expectedSize);
+		} else {
+			result = new ArrayList<>();
+		}
+		if ((fetchSize > 0) && (resultSet.getFetchSize() != fetchSize)) {
+			// Statement was not prepared with fetchSizePreparation()
 			resultSet.setFetchSize(fetchSize);
 		}
-		while (hasNext) {
+		while (resultSet.next()) {
 			result.add(this.mapping.map(resultSet));
-			hasNext = resultSet.next();
 		}
 		return result;
 	}
 
+	/**
+	 * 
+	 * Sets the fetch size on the statement before execution.
+	 * 
+	 */
+	@ToString
+	@EqualsAndHashCode
+	public static final class FetchSizePreparation implements Preparation {
+		private final int fetchSize;
+
+		public FetchSizePreparation(int fetchSize) {
+			this.fetchSize = fetchSize;
+		}
+
+		@Override
+		public void prepare(final PreparedStatement stmt) throws SQLException {
+			if (fetchSize > 0) {
+				stmt.setFetchSize(fetchSize);
+			}
+		}
+	}
+
 	/**
 	 * 
 	 * Mapping.
@@ -0,0 +1,90 @@
+package com.dieharddev.toolbox;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * Reads several files concurrently and appends them in their original order.
+ * At most {@code parallelism} files are read ahead of the one being appended, so
+ * only those are held in memory besides the result.
+ *
+ */
+public final class ParallelFileReader {
+	public static final int DEFAULT_PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+	private static final ExecutorService readerExecutorService //
+			= Executors.newCachedThreadPool(NamedThreadFactory.getDaemonThreadFactory("ParallelFileReader"));
+
+	private ParallelFileReader() {
+	}
+
+	public static String readFilesToString(String separator, List<File> files, Charset charset, int parallelism) {
+		StringBuilder stringBuilder = new StringBuilder(estimateLength(separator, files));
+		Deque<Future<String>> pendingReads = new ArrayDeque<Future<String>>();
+		int nextFileIndex = 0;
+		try {
+			for (int fileIndex = 0; fileIndex < files.size(); fileIndex++) {
+				while ((nextFileIndex < files.size()) && (pendingReads.size() < Math.max(1, parallelism))) {
+					pendingReads.add(readerExecutorService.submit(newReadTask(files.get(nextFileIndex++), charset)));
+				}
+				if (fileIndex > 0) {
+					stringBuilder.append(separator);
+				}
+				stringBuilder.append(getResult(pendingReads.poll()));
+			}
+		} finally {
+			for (Future<String> pendingRead : pendingReads) {
+				pendingRead.cancel(false);
+			}
+		}
+		return stringBuilder.toString();
+	}
+
+	private static int estimateLength(String separator, List<File> files) {
+		long length = (long) separator.length() * Math.max(0, files.size() - 1);
+		for (File file : files) {
+			length += file.getAbsoluteFile().length();
+		}
+		// Bytes are only an estimate of chars; leave room for the array header
+		return (int) Math.min(length, Integer.MAX_VALUE - 16);
+	}
+
+	private static Callable<String> newReadTask(File file, Charset charset) {
+		return new Callable<String>() {
+			@Override
+			public String call() {
+				try {
+					return new String(Files.readAllBytes(file.getAbsoluteFile().toPath()), charset);
+				} catch (IOException e) {
+					throw new RuntimeException(
+							"readFilesToString(): Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+				}
+			}
+		};
+	}
+
+	private static String getResult(Future<String> pendingRead) {
+		try {
+			return pendingRead.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("readFilesToString(): Interrupted while reading files", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("readFilesToString(): Could not read files", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package com.dieharddev.toolbox;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ *
+ * Opt-in cache of query results for one query name, keyed by SQL text and
+ * arguments. Each query name gets its own TTL, maximum weight in estimated bytes
+ * and optional refresh-ahead, which reloads a stale entry in the background
+ * while callers keep getting the old rows.
+ *
+ * <p>
+ *
+ * Eviction is Guava's LRU with a single segment, so the maximum weight applies
+ * to the cache as a whole and any result up to that weight can be cached.
+ * Cached lists are unmodifiable and shared between callers, so the row objects
+ * must not be mutated. The cache keeps no reference to the callers' loaders,
+ * and with them their data sources and mappers.
+ *
+ * </p>
+ *
+ */
+public final class QueryResultCache {
+	private static final ConcurrentHashMap<String, QueryResultCache> queryResultCaches = new ConcurrentHashMap<>();
+	private static final ExecutorService refreshExecutorService //
+			= Executors.newFixedThreadPool(2,
+					NamedThreadFactory.getDaemonThreadFactory("QueryResultCacheRefresh"));
+
+	private final String queryName;
+	private final long timeToLiveNanos;
+	private final long maximumWeightBytes;
+	private final long refreshAfterNanos;
+	private final Cache<QueryKey, CachedRows> cache;
+
+	/**
+	 *
+	 * @param refreshAfter 0 turns refresh-ahead off; otherwise it should be
+	 *                     shorter than the TTL
+	 * @throws IllegalStateException when the query name is already registered
+	 *                               with different settings
+	 *
+	 */
+	public static QueryResultCache register(String queryName, long timeToLive, TimeUnit timeUnit,
+			long maximumWeightBytes, long refreshAfter) {
+		ValueChecks.get().checkNotEmptyParameter(queryName, "queryName");
+		QueryResultCache queryResultCache = new QueryResultCache(queryName, timeToLive, timeUnit, maximumWeightBytes,
+				refreshAfter);
+		QueryResultCache existingQueryResultCache = queryResultCaches.putIfAbsent(queryName, queryResultCache);
+		if (existingQueryResultCache == null) {
+			return queryResultCache;
+		}
+		if ((existingQueryResultCache.timeToLiveNanos != queryResultCache.timeToLiveNanos)
+				|| (existingQueryResultCache.maximumWeightBytes != maximumWeightBytes)
+				|| (existingQueryResultCache.refreshAfterNanos != queryResultCache.refreshAfterNanos)) {
+			throw new IllegalStateException("Result cache for " + queryName
+					+ " is already registered with a different TTL, maximum weight or refresh");
+		}
+		return existingQueryResultCache;
+	}
+
+	public static QueryResultCache get(String queryName) {
+		QueryResultCache queryResultCache = queryResultCaches.get(queryName);
+		if (queryResultCache == null) {
+			throw new IllegalArgumentException("No result cache registered for " + queryName);
+		}
+		return queryResultCache;
+	}
+
+	public static Collection<QueryResultCache> getAll() {
+		return Collections.unmodifiableCollection(queryResultCaches.values());
+	}
+
+	private QueryResultCache(String queryName, long timeToLive, TimeUnit timeUnit, long maximumWeightBytes,
+			long refreshAfter) {
+		super();
+		this.queryName = queryName;
+		this.timeToLiveNanos = timeUnit.toNanos(timeToLive);
+		this.maximumWeightBytes = maximumWeightBytes;
+		this.refreshAfterNanos = (refreshAfter > 0) ? timeUnit.toNanos(refreshAfter) : 0;
+		this.cache = CacheBuilder.newBuilder()//
+				.concurrencyLevel(1)//
+				.expireAfterWrite(timeToLive, timeUnit)//
+				.maximumWeight(maximumWeightBytes)//
+				.recordStats()//
+				.weigher(new Weigher<QueryKey, CachedRows>() {
+					@Override
+					public int weigh(QueryKey queryKey, CachedRows cachedRows) {
+						return (int) Math.min(Integer.MAX_VALUE,
+								queryKey.estimateBytes() + estimateBytes(cachedRows.rows));
+					}
+				})//
+				.build();
+	}
+
+	public String getQueryName() {
+		return queryName;
+	}
+
+	/**
+	 *
+	 * @param loader runs the query on a miss, or in the background when the entry
+	 *               is older than the refresh time; it is not kept afterwards
+	 *
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> get(String sqlString, Object[] args, Callable<List<T>> loader) {
+		QueryKey queryKey = new QueryKey(sqlString, args);
+		CachedRows cachedRows;
+		try {
+			cachedRows = cache.get(queryKey, new Callable<CachedRows>() {
+				@Override
+				public CachedRows call() throws Exception {
+					return new CachedRows(Collections.unmodifiableList(loader.call()));
+				}
+			});
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("SQL query failed for " + queryName, e.getCause());
+		}
+		if ((refreshAfterNanos > 0) && (cachedRows.isStale(refreshAfterNanos) == true)) {
+			refreshInBackground(queryKey, cachedRows, loader);
+		}
+		return (List<T>) cachedRows.rows;
+	}
+
+	private void refreshInBackground(QueryKey queryKey, CachedRows cachedRows, Callable<? extends List<?>> loader) {
+		if (cachedRows.refreshing.compareAndSet(false, true) == false) {
+			return;
+		}
+		refreshExecutorService.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					CachedRows refreshedRows = new CachedRows(Collections.unmodifiableList(loader.call()));
+					// Only replaces the entry that went stale, not one invalidated or reloaded meanwhile
+					cache.asMap().replace(queryKey, cachedRows, refreshedRows);
+				} catch (Exception e) {
+					// Callers keep the old rows until the TTL runs out or the next refresh works
+					cachedRows.refreshing.set(false);
+					Logit.getLogit(QueryResultCache.class).error("refresh(): Could not refresh {}, {}", queryName, e);
+				}
+			}
+		});
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public void invalidate(String sqlString, Object[] args) {
+		cache.invalidate(new QueryKey(sqlString, args));
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	public long getSize() {
+		return cache.size();
+	}
+
+	@Override
+	public String toString() {
+		return "QueryResultCache(queryName=" + queryName + ", size=" + getSize() + ", stats=" + getStats() + ")";
+	}
+
+	// Rough shallow-plus-strings estimate, good enough to bound memory
+	static long estimateBytes(Object value) {
+		if (value == null) {
+			return 4;
+		}
+		if (value instanceof String) {
+			return 40 + 2L * ((String) value).length();
+		}
+		if ((value instanceof Number) || (value instanceof Boolean) || (value instanceof Character)) {
+			return 16;
+		}
+		if (value instanceof byte[]) {
+			return 16 + ((byte[]) value).length;
+		}
+		if (value instanceof Object[]) {
+			long bytes = 16;
+			for (Object element : (Object[]) value) {
+				bytes += 4 + estimateBytes(element);
+			}
+			return bytes;
+		}
+		if (value instanceof Collection) {
+			long bytes = 40;
+			for (Object element : (Collection<?>) value) {
+				bytes += 8 + estimateBytes(element);
+			}
+			return bytes;
+		}
+		if (value instanceof Map) {
+			long bytes = 48;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				bytes += 32 + estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+			}
+			return bytes;
+		}
+		return 64;
+	}
+
+	private static final class CachedRows {
+		private final List<?> rows;
+		private final long loadedNanos = System.nanoTime();
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		CachedRows(List<?> rows) {
+			super();
+			this.rows = rows;
+		}
+
+		boolean isStale(long refreshAfterNanos) {
+			return System.nanoTime() - loadedNanos >= refreshAfterNanos;
+		}
+	}
+
+	private static final class QueryKey {
+		private final String sqlString;
+		private final Object[] args;
+		private final int hashCode;
+
+		QueryKey(String sqlString, Object[] args) {
+			super();
+			this.sqlString = sqlString;
+			this.args = args.clone();
+			this.hashCode = 31 * sqlString.hashCode() + Arrays.deepHashCode(this.args);
+		}
+
+		long estimateBytes() {
+			return 32 + QueryResultCache.estimateBytes(sqlString) + QueryResultCache.estimateBytes(args);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) {
+				return true;
+			}
+			if ((object instanceof QueryKey) == false) {
+				return false;
+			}
+			QueryKey other = (QueryKey) object;
+			return (hashCode == other.hashCode) && (sqlString.equals(other.sqlString) == true)
+					&& (Arrays.deepEquals(args, other.args) == true);
+		}
+	}
+}
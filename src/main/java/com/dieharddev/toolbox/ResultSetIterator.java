@@ -0,0 +1,183 @@
+package com.dieharddev.toolbox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import com.dieharddev.toolbox.ToolBox.ListGetter;
+
+/**
+ *
+ * Iterator over an open cursor. The connection, statement and result set stay
+ * open until the rows are exhausted or {@link #close()} is called, so rows are
+ * fetched {@code fetchSize} at a time instead of being materialized up front.
+ *
+ * <p>
+ *
+ * The query runs with auto-commit off, since PostgreSQL only honours the fetch
+ * size inside a transaction.
+ *
+ * </p>
+ *
+ */
+public class ResultSetIterator<T> implements Iterator<T>, AutoCloseable, Runnable {
+	private final String queryNameForErrors;
+	private final ListGetter<T> mapper;
+	private final Connection connection;
+	private final PreparedStatement preparedStatement;
+	private final ResultSet resultSet;
+	private boolean hasNextRow;
+	private boolean advanced;
+	private boolean closed;
+
+	public static <T> ResultSetIterator<T> open(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			DataSource dataSource, //
+			int fetchSize, //
+			ListGetter<T> mapper) {
+		Connection connection = null;
+		PreparedStatement preparedStatement = null;
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			preparedStatement = connection.prepareStatement(sqlString, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			preparedStatement.setFetchSize(fetchSize);
+			setParameters(preparedStatement, args);
+			ResultSet resultSet = preparedStatement.executeQuery();
+			return new ResultSetIterator<T>(queryNameForErrors, mapper, connection, preparedStatement, resultSet);
+		} catch (SQLException e) {
+			RuntimeException runtimeException = new RuntimeException("SQL query failed for " + queryNameForErrors, e);
+			closeAll(null, preparedStatement, connection, false, runtimeException);
+			throw runtimeException;
+		}
+	}
+
+	/**
+	 *
+	 * Binds arguments the way {@link com.jcabi.jdbc.JdbcSession#set(Object)} does
+	 * for the common cases.
+	 *
+	 */
+	public static void setParameters(PreparedStatement preparedStatement, Object[] args) throws SQLException {
+		for (int index = 0; index < args.length; index++) {
+			Object arg = args[index];
+			if (arg == null) {
+				preparedStatement.setString(index + 1, null);
+			} else {
+				preparedStatement.setObject(index + 1, arg);
+			}
+		}
+	}
+
+	private ResultSetIterator(String queryNameForErrors, ListGetter<T> mapper, Connection connection,
+			PreparedStatement preparedStatement, ResultSet resultSet) {
+		super();
+		this.queryNameForErrors = queryNameForErrors;
+		this.mapper = mapper;
+		this.connection = connection;
+		this.preparedStatement = preparedStatement;
+		this.resultSet = resultSet;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed == true) {
+			return false;
+		}
+		if (advanced == false) {
+			try {
+				hasNextRow = resultSet.next();
+			} catch (SQLException e) {
+				throw failed(e);
+			}
+			advanced = true;
+			if (hasNextRow == false) {
+				close();
+			}
+		}
+		return hasNextRow;
+	}
+
+	@Override
+	public T next() {
+		if (hasNext() == false) {
+			throw new NoSuchElementException();
+		}
+		advanced = false;
+		try {
+			return mapper.getValue(resultSet);
+		} catch (SQLException e) {
+			throw failed(e);
+		}
+	}
+
+	private RuntimeException failed(SQLException e) {
+		RuntimeException runtimeException = new RuntimeException("SQL query failed for " + queryNameForErrors, e);
+		if (closed == false) {
+			closed = true;
+			closeAll(resultSet, preparedStatement, connection, false, runtimeException);
+		}
+		return runtimeException;
+	}
+
+	@Override
+	public void run() {
+		close();
+	}
+
+	@Override
+	public void close() {
+		if (closed == true) {
+			return;
+		}
+		closed = true;
+		RuntimeException runtimeException = new RuntimeException("Closing cursor failed for " + queryNameForErrors);
+		closeAll(resultSet, preparedStatement, connection, true, runtimeException);
+		if (runtimeException.getSuppressed().length > 0) {
+			throw runtimeException;
+		}
+	}
+
+	private static void closeAll(ResultSet resultSet, PreparedStatement preparedStatement, Connection connection,
+			boolean commit, RuntimeException runtimeException) {
+		if (resultSet != null) {
+			try {
+				resultSet.close();
+			} catch (SQLException e) {
+				runtimeException.addSuppressed(e);
+			}
+		}
+		if (preparedStatement != null) {
+			try {
+				preparedStatement.close();
+			} catch (SQLException e) {
+				runtimeException.addSuppressed(e);
+			}
+		}
+		if (connection != null) {
+			try {
+				if (commit == true) {
+					connection.commit();
+				} else {
+					connection.rollback();
+				}
+				connection.setAutoCommit(true);
+			} catch (SQLException e) {
+				runtimeException.addSuppressed(e);
+			}
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				runtimeException.addSuppressed(e);
+			}
+		}
+	}
+}
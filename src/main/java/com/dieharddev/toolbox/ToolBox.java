@@ -1,70 +1,114 @@
 package com.dieharddev.toolbox;
 
 import java.awt.Desktop;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.sql.Statement;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Formatter;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
+import com.google.common.cache.CacheStats;
 import com.google.gson.ExclusionStrategy;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.Outcome;
+import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import lombok.Builder;
@@ -78,8 +122,38 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 
 	default void writeLinesToFile(File file, List<String> linesList) {
-		String linesString = join(linesList, "\n");
-		writeFile(file, linesString);
+		writeLinesToFile(file, linesList.iterator(), Charset.defaultCharset());
+	}
+
+	/**
+	 * 
+	 * Writes the lines one by one, separated by "\n" with none after the last,
+	 * the same bytes as writing {@code join(lines, "\n")}.
+	 * 
+	 */
+	default void writeLinesToFile(File file, Iterator<? extends CharSequence> lines, Charset charset) {
+		try (Writer writer = new BufferedWriter(
+				Channels.newWriter(openFileChannelForWriting(file, "writeLinesToFile"), newReplacingEncoder(charset),
+						FILE_BUFFER_SIZE),
+				FILE_BUFFER_SIZE)) {
+			boolean firstLine = true;
+			while (lines.hasNext() == true) {
+				if (firstLine == false) {
+					writer.write('\n');
+				}
+				writer.append(lines.next());
+				firstLine = false;
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("writeLinesToFile(): Could not write file, \"" + file.getAbsolutePath() + "\"",
+					e);
+		}
+	}
+
+	default void writeLinesToFile(File file, Stream<? extends CharSequence> lines, Charset charset) {
+		try (Stream<? extends CharSequence> closingLines = lines) {
+			writeLinesToFile(file, closingLines.iterator(), charset);
+		}
 	}
 
 	default void writeFile(String fileName, CharSequence data) {
@@ -88,16 +162,85 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 
 	default void writeFile(File file, CharSequence data) {
-		if (file.exists() == true) {
-			if (file.canWrite() == false) {
-				throw new RuntimeException("writeFile(): Do not have permissions to write to existing file, \""
-						+ file.getAbsolutePath() + "\"");
+		writeFile(file, data, Charset.defaultCharset(), false);
+	}
+
+	/**
+	 * 
+	 * @param force true to wait until the data is on the storage device
+	 * 
+	 */
+	default void writeFile(File file, CharSequence data, Charset charset, boolean force) {
+		writeFile(file, charset.encode(CharBuffer.wrap(data)), force);
+	}
+
+	default void writeFile(File file, byte[] data, boolean force) {
+		writeFile(file, ByteBuffer.wrap(data), force);
+	}
+
+	default void writeFile(File file, ByteBuffer data, boolean force) {
+		try (FileChannel fileChannel = openFileChannelForWriting(file, "writeFile")) {
+			while (data.hasRemaining() == true) {
+				fileChannel.write(data);
+			}
+			if (force == true) {
+				fileChannel.force(true);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("writeFile(): Could not write file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	/**
+	 * 
+	 * Copies with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+	 * which lets the OS move the data without copying it through the heap.
+	 * 
+	 */
+	default void copyFile(File sourceFile, File targetFile, boolean force) {
+		try (FileChannel sourceChannel = FileChannel.open(sourceFile.getAbsoluteFile().toPath(),
+				StandardOpenOption.READ);
+				FileChannel targetChannel = openFileChannelForWriting(targetFile, "copyFile")) {
+			long size = sourceChannel.size();
+			long position = 0;
+			while (position < size) {
+				long transferred = sourceChannel.transferTo(position, size - position, targetChannel);
+				if (transferred <= 0) {
+					// Source shrank while copying
+					break;
+				}
+				position += transferred;
+			}
+			if (force == true) {
+				targetChannel.force(true);
 			}
+		} catch (IOException e) {
+			throw new RuntimeException("copyFile(): Could not copy file, \"" + sourceFile.getAbsolutePath()
+					+ "\" to \"" + targetFile.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	/**
+	 * 
+	 * Creates missing parent directories, like FileUtils.openOutputStream().
+	 * 
+	 */
+	default FileChannel openFileChannelForWriting(File file, String methodNameForErrors) {
+		File absoluteFile = file.getAbsoluteFile();
+		if (absoluteFile.exists() == true) {
+			if (absoluteFile.canWrite() == false) {
+				throw new RuntimeException(methodNameForErrors
+						+ "(): Do not have permissions to write to existing file, \"" + file.getAbsolutePath() + "\"");
+			}
+		} else if (absoluteFile.getParentFile() != null) {
+			absoluteFile.getParentFile().mkdirs();
 		}
 		try {
-			FileUtils.write(file.getAbsoluteFile(), data);
+			return FileChannel.open(absoluteFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
 		} catch (IOException e) {
-			new RuntimeException("Could not write file, \"" + file.getAbsolutePath() + "\"", e);
+			throw new RuntimeException(
+					methodNameForErrors + "(): Could not open file, \"" + file.getAbsolutePath() + "\"", e);
 		}
 	}
 
@@ -108,12 +251,61 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 
 	default byte[] readFileToBytes(File file) {
 		try {
-			return FileUtils.readFileToByteArray(file.getAbsoluteFile());
+			return Files.readAllBytes(file.getAbsoluteFile().toPath());
 		} catch (IOException e) {
 			throw new RuntimeException("readFileToBytes(): Could not read file, \"" + file.getAbsolutePath() + "\"", e);
 		}
 	}
 
+	public static final long MAPPED_READ_THRESHOLD = 1024 * 1024;
+
+	/**
+	 * 
+	 * Files of {@link #MAPPED_READ_THRESHOLD} bytes or more are memory-mapped
+	 * read-only, so they are not copied into the heap; smaller ones are read into
+	 * a heap buffer. The returned buffer is positioned at 0.
+	 * 
+	 */
+	default ByteBuffer readFileToByteBuffer(File file) {
+		try (FileChannel fileChannel = FileChannel.open(file.getAbsoluteFile().toPath(), StandardOpenOption.READ)) {
+			long size = fileChannel.size();
+			if (size >= MAPPED_READ_THRESHOLD) {
+				return mapFile(fileChannel, size, file);
+			}
+			ByteBuffer byteBuffer = ByteBuffer.allocate((int) size);
+			while ((byteBuffer.hasRemaining() == true) && (fileChannel.read(byteBuffer) >= 0)) {
+				// Keep reading until full or end of file
+			}
+			byteBuffer.flip();
+			return byteBuffer;
+		} catch (IOException e) {
+			throw new RuntimeException("readFileToByteBuffer(): Could not read file, \"" + file.getAbsolutePath() + "\"",
+					e);
+		}
+	}
+
+	/**
+	 * 
+	 * The mapping stays valid after this returns and is released when the buffer
+	 * is garbage collected.
+	 * 
+	 */
+	default MappedByteBuffer mapFileReadOnly(File file) {
+		try (FileChannel fileChannel = FileChannel.open(file.getAbsoluteFile().toPath(), StandardOpenOption.READ)) {
+			return mapFile(fileChannel, fileChannel.size(), file);
+		} catch (IOException e) {
+			throw new RuntimeException("mapFileReadOnly(): Could not map file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	private static MappedByteBuffer mapFile(FileChannel fileChannel, long size, File file) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("File is larger than 2GB and cannot be mapped as one buffer, \""
+					+ file.getAbsolutePath() + "\"");
+		}
+		return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+	}
+
 	default String readFilesToString(List<File> files) {
 		return readFilesToString("", files);
 	}
@@ -142,11 +334,83 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 
 	default String readFilesToString(String separator, List<File> files) {
-		List<String> fileContentsList = new ArrayList<String>();
-		for (File file : files) {
-			fileContentsList.add(readFileToString(file));
+		if (files.size() == 1) {
+			return readFileToString(files.get(0));
+		}
+		return readFilesToString(separator, files, Charset.defaultCharset(), ParallelFileReader.DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * 
+	 * Reads up to {@code parallelism} files at a time and appends them, in order,
+	 * to one builder sized from the file lengths.
+	 * 
+	 */
+	default String readFilesToString(String separator, List<File> files, Charset charset, int parallelism) {
+		return ParallelFileReader.readFilesToString(separator, files, charset, parallelism);
+	}
+
+	/**
+	 * 
+	 * Streams the files, in order, into the writer without building a combined
+	 * String; only a buffer's worth of each file is in memory at a time.
+	 * 
+	 */
+	default void copyFilesTo(Writer writer, String separator, List<File> files, Charset charset) {
+		char[] buffer = new char[FILE_BUFFER_SIZE / 2];
+		for (int index = 0; index < files.size(); index++) {
+			File file = files.get(index);
+			try (Reader reader = newBufferedFileReader(file, charset)) {
+				if (index > 0) {
+					writer.write(separator);
+				}
+				int count;
+				while ((count = reader.read(buffer)) >= 0) {
+					writer.write(buffer, 0, count);
+				}
+			} catch (IOException e) {
+				throw new RuntimeException("copyFilesTo(): Could not copy file, \"" + file.getAbsolutePath() + "\"", e);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * Byte-level variant of {@link #copyFilesTo(Writer, String, List, Charset)}
+	 * using {@link FileChannel#transferTo(long, long, WritableByteChannel)}. A
+	 * non-blocking channel is waited for until it takes every byte.
+	 * 
+	 */
+	default void copyFilesTo(WritableByteChannel channel, byte[] separator, List<File> files) {
+		for (int index = 0; index < files.size(); index++) {
+			File file = files.get(index);
+			try (FileChannel fileChannel = FileChannel.open(file.getAbsoluteFile().toPath(), StandardOpenOption.READ)) {
+				if ((index > 0) && (separator.length > 0)) {
+					ByteBuffer separatorBuffer = ByteBuffer.wrap(separator);
+					while (separatorBuffer.hasRemaining() == true) {
+						if (channel.write(separatorBuffer) == 0) {
+							waitForWritableChannel();
+						}
+					}
+				}
+				long size = fileChannel.size();
+				long position = 0;
+				while (position < size) {
+					long transferred = fileChannel.transferTo(position, size - position, channel);
+					if (transferred > 0) {
+						position += transferred;
+					} else if (position >= fileChannel.size()) {
+						throw new IOException("File shrank to " + fileChannel.size() + " bytes while copying "
+								+ size + " bytes");
+					} else {
+						// A non-blocking channel that is full right now
+						waitForWritableChannel();
+					}
+				}
+			} catch (IOException e) {
+				throw new RuntimeException("copyFilesTo(): Could not copy file, \"" + file.getAbsolutePath() + "\"", e);
+			}
 		}
-		return String.join(separator, fileContentsList);
 	}
 
 	default String readFileToString(File file) {
@@ -156,12 +420,174 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	default String readFileToString(File file, Charset charset) {
 //                            commonFileReadAssertions(file);
 		try {
-			return FileUtils.readFileToString(file.getAbsoluteFile(), charset);
+			// Decodes straight from one exactly sized array, malformed input is replaced
+			return new String(Files.readAllBytes(file.getAbsoluteFile().toPath()), charset);
 		} catch (IOException e) {
 			throw new RuntimeException("readFileToString(): Could not read file, \"" + file.getAbsolutePath() + "\"",
 					e);
 		}
 	}
+
+	public static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * 
+	 * Creates missing parent directories. Characters the charset can not encode
+	 * are replaced, like {@link String#getBytes(Charset)} does.
+	 * 
+	 */
+	default Writer newBufferedFileWriter(File file, Charset charset) {
+		FileChannel fileChannel = openFileChannelForWriting(file, "newBufferedFileWriter");
+		return new BufferedWriter(Channels.newWriter(fileChannel, newReplacingEncoder(charset), FILE_BUFFER_SIZE),
+				FILE_BUFFER_SIZE);
+	}
+
+	/**
+	 * 
+	 * Malformed input is replaced with U+FFFD, like {@link String#String(byte[], Charset)}
+	 * does.
+	 * 
+	 */
+	default Reader newBufferedFileReader(File file, Charset charset) {
+		try {
+			FileChannel fileChannel = FileChannel.open(file.getAbsoluteFile().toPath(), StandardOpenOption.READ);
+			return new BufferedReader(Channels.newReader(fileChannel, newReplacingDecoder(charset), FILE_BUFFER_SIZE),
+					FILE_BUFFER_SIZE);
+		} catch (IOException e) {
+			throw new RuntimeException("newBufferedFileReader(): Could not open file, \"" + file.getAbsolutePath() + "\"",
+					e);
+		}
+	}
+	// Compressed files
+
+	/**
+	 * 
+	 * Compresses with the codec of {@code fileCompression}, or the one matching
+	 * the file extension, e.g. "export.json.gz".
+	 * 
+	 */
+	default OutputStream newCompressedFileOutputStream(File file, FileCompression fileCompression) {
+		FileChannel fileChannel = openFileChannelForWriting(file, "newCompressedFileOutputStream");
+		try {
+			return new BufferedOutputStream(fileCompression.resolveCodec(file).compress(
+					new BufferedOutputStream(Channels.newOutputStream(fileChannel), fileCompression.getBufferSize()),
+					fileCompression.getLevel(), fileCompression.getBufferSize()), fileCompression.getBufferSize());
+		} catch (IOException | RuntimeException e) {
+			// Also for a bad level or block size, so the channel is not left open
+			closeQuietly(fileChannel);
+			throw new RuntimeException(
+					"newCompressedFileOutputStream(): Could not open file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default InputStream newCompressedFileInputStream(File file, FileCompression fileCompression) {
+		FileChannel fileChannel = null;
+		try {
+			fileChannel = FileChannel.open(file.getAbsoluteFile().toPath(), StandardOpenOption.READ);
+			return new BufferedInputStream(fileCompression.resolveCodec(file).decompress(
+					new BufferedInputStream(Channels.newInputStream(fileChannel), fileCompression.getBufferSize()),
+					fileCompression.getBufferSize()), fileCompression.getBufferSize());
+		} catch (IOException | RuntimeException e) {
+			closeQuietly(fileChannel);
+			throw new RuntimeException(
+					"newCompressedFileInputStream(): Could not open file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default Writer newBufferedFileWriter(File file, Charset charset, FileCompression fileCompression) {
+		return new BufferedWriter(
+				new OutputStreamWriter(newCompressedFileOutputStream(file, fileCompression), newReplacingEncoder(charset)),
+				FILE_BUFFER_SIZE);
+	}
+
+	default Reader newBufferedFileReader(File file, Charset charset, FileCompression fileCompression) {
+		return new BufferedReader(
+				new InputStreamReader(newCompressedFileInputStream(file, fileCompression), newReplacingDecoder(charset)),
+				FILE_BUFFER_SIZE);
+	}
+
+	default void writeCompressedFile(File file, byte[] data, FileCompression fileCompression) {
+		try (OutputStream outputStream = newCompressedFileOutputStream(file, fileCompression)) {
+			outputStream.write(data);
+		} catch (IOException e) {
+			throw new RuntimeException("writeCompressedFile(): Could not write file, \"" + file.getAbsolutePath() + "\"",
+					e);
+		}
+	}
+
+	default void writeCompressedFile(File file, CharSequence data, Charset charset, FileCompression fileCompression) {
+		try (Writer writer = newBufferedFileWriter(file, charset, fileCompression)) {
+			writer.append(data);
+		} catch (IOException e) {
+			throw new RuntimeException("writeCompressedFile(): Could not write file, \"" + file.getAbsolutePath() + "\"",
+					e);
+		}
+	}
+
+	default byte[] readCompressedFileToBytes(File file, FileCompression fileCompression) {
+		try (InputStream inputStream = newCompressedFileInputStream(file, fileCompression)) {
+			return IOUtils.toByteArray(inputStream);
+		} catch (IOException e) {
+			throw new RuntimeException(
+					"readCompressedFileToBytes(): Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default String readCompressedFileToString(File file, Charset charset, FileCompression fileCompression) {
+		try (Reader reader = newBufferedFileReader(file, charset, fileCompression)) {
+			return IOUtils.toString(reader);
+		} catch (IOException e) {
+			throw new RuntimeException(
+					"readCompressedFileToString(): Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default void writeLinesToCompressedFile(File file, Iterator<? extends CharSequence> lines, Charset charset,
+			FileCompression fileCompression) {
+		try (Writer writer = newBufferedFileWriter(file, charset, fileCompression)) {
+			boolean firstLine = true;
+			while (lines.hasNext() == true) {
+				if (firstLine == false) {
+					writer.write('\n');
+				}
+				writer.append(lines.next());
+				firstLine = false;
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(
+					"writeLinesToCompressedFile(): Could not write file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default Stream<String> streamCompressedFileLines(File file, Charset charset, FileCompression fileCompression) {
+		return LineScanner.lines(newBufferedFileReader(file, charset, fileCompression));
+	}
+
+	// Between retries on a full non-blocking channel, instead of spinning
+	private static void waitForWritableChannel() {
+		LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	// The encoders and decoders from Charset report bad input, the Writer and String paths replace it
+	private static CharsetEncoder newReplacingEncoder(Charset charset) {
+		return charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	private static CharsetDecoder newReplacingDecoder(Charset charset) {
+		return charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				// Already failing, keep the original exception
+			}
+		}
+	}
 	// //////////////////////////////////////////////////////////////////////////////////////////////////
 	// Json Support
 	// //////////////////////////////////////////////////////////////////////////////////////////////////
@@ -174,46 +600,106 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}.getType();
 
 	default String toJson(Object object, Type typeOfSrc) {
-		return new GsonBuilder().serializeNulls().disableHtmlEscaping()
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer()).create()
-				.toJson(object, typeOfSrc);
+		return GsonRegistry.getGson().toJson(object, typeOfSrc);
 	}
 
 	default String toJson(Object object) {
 		if (object instanceof List<?>) {
 			return toJson(object, ExposedMethodsListType);
 		}
-		return new GsonBuilder().serializeNulls().disableHtmlEscaping()
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer()).create().toJson(object);
+		return GsonRegistry.getGson().toJson(object);
 	}
 
 	default String toPrettyJson(Object object, Type typeOfSrc) {
-		return new GsonBuilder().serializeNulls().disableHtmlEscaping()
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer()).setPrettyPrinting().create()
-				.toJson(object, typeOfSrc);
+		return GsonRegistry.getPrettyGson().toJson(object, typeOfSrc);
 	}
 
 	default String toPrettyJson(Object object, ExclusionStrategy... exclusionStrategies) {
-		return new GsonBuilder().serializeNulls().disableHtmlEscaping()
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer()).setPrettyPrinting()//
-				.setExclusionStrategies(exclusionStrategies)//
-				.create().toJson(object);
+		return GsonRegistry.getPrettyGson(exclusionStrategies).toJson(object);
 	}
 
 	default String toPrettyJson(Object object) {
-		return new GsonBuilder().serializeNulls().disableHtmlEscaping()
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer()).setPrettyPrinting()//
-				.create().toJson(object);
+		return GsonRegistry.getPrettyGson().toJson(object);
 	}
 
 	default void toPrettyJsonFile(File file, Object object) {
-		String jsonString = toPrettyJson(object);
-		writeFile(file, jsonString);
+		toJsonFile(file, object, GsonRegistry.getPrettyGson());
+	}
+
+	default void toJsonFile(File file, Object object) {
+		toJsonFile(file, object, GsonRegistry.getGson());
+	}
+
+	default void toJsonFile(File file, Object object, Gson gson) {
+		try (Writer writer = newBufferedFileWriter(file, Charset.defaultCharset())) {
+			toJson(object, writer, gson);
+		} catch (IOException e) {
+			throw new RuntimeException("toJsonFile(): Could not write file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default void toJsonFile(File file, Object object, Gson gson, FileCompression fileCompression) {
+		try (Writer writer = newBufferedFileWriter(file, Charset.defaultCharset(), fileCompression)) {
+			toJson(object, writer, gson);
+		} catch (IOException e) {
+			throw new RuntimeException("toJsonFile(): Could not write file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default void toPrettyJsonFile(File file, Object object, FileCompression fileCompression) {
+		toJsonFile(file, object, GsonRegistry.getPrettyGson(), fileCompression);
+	}
+
+	default void toJson(Object object, Writer writer) {
+		toJson(object, writer, GsonRegistry.getGson());
+	}
+
+	default void toPrettyJson(Object object, Writer writer) {
+		toJson(object, writer, GsonRegistry.getPrettyGson());
+	}
+
+	default void toJson(Object object, Writer writer, Gson gson) {
+		try {
+			JsonWriter jsonWriter = gson.newJsonWriter(writer);
+			if (object == null) {
+				jsonWriter.nullValue();
+			} else {
+				gson.toJson(object, object.getClass(), jsonWriter);
+			}
+			jsonWriter.flush();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+	}
+
+	/**
+	 * 
+	 * Writes the elements as one top-level JSON array, one element at a time, so
+	 * the whole array never has to be held in memory.
+	 * 
+	 */
+	default void toJsonArrayFile(File file, Iterator<?> elements) {
+		toJsonArrayFile(file, elements, GsonRegistry.getGson());
+	}
+
+	default void toJsonArrayFile(File file, Iterator<?> elements, Gson gson) {
+		try (Writer writer = newBufferedFileWriter(file, Charset.defaultCharset())) {
+			JsonWriter jsonWriter = gson.newJsonWriter(writer);
+			jsonWriter.beginArray();
+			while (elements.hasNext() == true) {
+				Object element = elements.next();
+				if (element == null) {
+					jsonWriter.nullValue();
+				} else {
+					gson.toJson(element, element.getClass(), jsonWriter);
+				}
+			}
+			jsonWriter.endArray();
+			jsonWriter.flush();
+		} catch (IOException e) {
+			throw new RuntimeException(
+					"toJsonArrayFile(): Could not write file, \"" + file.getAbsolutePath() + "\"", e);
+		}
 	}
 
 	@Retention(RetentionPolicy.RUNTIME)
@@ -225,99 +711,242 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	public static interface ToolBoxExposedMethods {
 	};
 
+	/**
+	 * 
+	 * Tree-building serializer kept for callers that register it themselves. The
+	 * {@link GsonRegistry} instances use {@link ExposedMethodsTypeAdapterFactory},
+	 * which writes straight to the output.
+	 * 
+	 */
 	public static class MethodSerializer implements JsonSerializer<Object> {
 		@Override
 		public JsonElement serialize(Object src, Type typeOfSrc, JsonSerializationContext context) {
-			Gson gson = new Gson();
-			JsonObject tree = (JsonObject) gson.toJsonTree(src);
+			return GsonRegistry.getGson().toJsonTree(src, ToolBoxExposedMethods.class);
+		}
+	}
+
+	/**
+	 * 
+	 * GitLab style timestamps without locking: formatting and parsing go through
+	 * the immutable formatters of {@link GitLabDateFormat}. Register with
+	 * {@link TypeAdapter#nullSafe()}.
+	 * 
+	 */
+	public static class DateTypeAdapter extends TypeAdapter<Date> {
+		private final boolean sqlDate;
+
+		DateTypeAdapter() {
+			this(false);
+		}
+
+		DateTypeAdapter(boolean sqlDate) {
+			super();
+			this.sqlDate = sqlDate;
+		}
+
+		@Override
+		public void write(JsonWriter out, Date date) throws IOException {
+			out.value(GitLabDateFormat.format(date.getTime()));
+		}
+
+		@Override
+		public Date read(JsonReader in) throws IOException {
+			long epochMillis = GitLabDateFormat.parseEpochMillis(in.nextString());
+			if (sqlDate == true) {
+				return new java.sql.Date(epochMillis);
+			} else {
+				return new Date(epochMillis);
+			}
+		}
+	}
+
+	public static class InstantTypeAdapter extends TypeAdapter<Instant> {
+		@Override
+		public void write(JsonWriter out, Instant instant) throws IOException {
+			out.value(GitLabDateFormat.formatUtc(instant));
+		}
+
+		@Override
+		public Instant read(JsonReader in) throws IOException {
+			return GitLabDateFormat.parseInstant(in.nextString());
+		}
+	}
+
+	public static class OffsetDateTimeTypeAdapter extends TypeAdapter<OffsetDateTime> {
+		@Override
+		public void write(JsonWriter out, OffsetDateTime offsetDateTime) throws IOException {
+			out.value(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(offsetDateTime));
+		}
+
+		@Override
+		public OffsetDateTime read(JsonReader in) throws IOException {
+			return GitLabDateFormat.parseOffsetDateTime(in.nextString());
+		}
+	}
+
+	public static class LocalDateTypeAdapter extends TypeAdapter<LocalDate> {
+		@Override
+		public void write(JsonWriter out, LocalDate localDate) throws IOException {
+			out.value(DateTimeFormatter.ISO_LOCAL_DATE.format(localDate));
+		}
+
+		@Override
+		public LocalDate read(JsonReader in) throws IOException {
+			String jsonString = in.nextString();
 			try {
-				PropertyDescriptor[] properties = Introspector.getBeanInfo(src.getClass()).getPropertyDescriptors();
-				for (PropertyDescriptor property : properties) {
-					if (property.getReadMethod().getAnnotation(ToolBoxExposeMethod.class) != null) {
-						Object result = property.getReadMethod().invoke(src, (Object[]) null);
-						tree.add(property.getName(), gson.toJsonTree(result));
-					}
-				}
-			} catch (Exception ex) {
-				ex.printStackTrace();
+				return LocalDate.parse(jsonString, DateTimeFormatter.ISO_LOCAL_DATE);
+			} catch (DateTimeParseException e) {
+				throw new JsonParseException("Could not parse date, \"" + jsonString + "\"", e);
 			}
-			return tree;
 		}
 	}
 
-	public static class DateTypeAdapter implements JsonSerializer<Date>, JsonDeserializer<Date> {
-		private final DateFormat dateFormatWithZ;
-		private final DateFormat dateFormat;
-		// "2016-07-27T15:30:40.864Z"
+	default Object fromJsonWithGitLabDateFormat(String jsonString, Class<?> aClass) {
+		return GsonRegistry.getGitLabDateGson().fromJson(jsonString, aClass);
+	}
+
+	default <T> T fromJson(String jsonString, Type type) {
+		return GsonRegistry.getGson().fromJson(jsonString, type);
+	}
+
+	default <T> T fromJson(String jsonString, Class<T> aClass) {
+		return GsonRegistry.getGson().fromJson(jsonString, aClass);
+	}
+
+	default <T> T fromJson(Reader reader, Type type) {
+		return GsonRegistry.getGson().fromJson(reader, type);
+	}
+
+	default <T> T fromJson(Reader reader, Class<T> aClass) {
+		return GsonRegistry.getGson().fromJson(reader, aClass);
+	}
+
+	default <T> T fromJsonFile(String fileName, Class<T> aClass) {
+		return fromJsonFile(new File(fileName), aClass);
+	}
 
-		private DateTypeAdapter() {
-			dateFormatWithZ = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
-			dateFormatWithZ.setTimeZone(TimeZone.getTimeZone("UTC"));
-			dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX", Locale.US);
+	default <T> T fromJsonFile(File file, Class<T> aClass) {
+		try (Reader reader = newBufferedFileReader(file, Charset.defaultCharset())) {
+			return fromJson(reader, aClass);
+		} catch (IOException e) {
+			throw new RuntimeException("fromJsonFile(): Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default <T> T fromJsonFile(File file, Type type) {
+		try (Reader reader = newBufferedFileReader(file, Charset.defaultCharset())) {
+			return fromJson(reader, type);
+		} catch (IOException e) {
+			throw new RuntimeException("fromJsonFile(): Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	default <T> T fromJsonFile(File file, Type type, FileCompression fileCompression) {
+		try (Reader reader = newBufferedFileReader(file, Charset.defaultCharset(), fileCompression)) {
+			return fromJson(reader, type);
+		} catch (IOException e) {
+			throw new RuntimeException("fromJsonFile(): Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+		}
+	}
+
+	/**
+	 * 
+	 * Iterates a file holding a top-level JSON array one element at a time. The
+	 * returned stream holds the file open and must be closed, e.g. with
+	 * try-with-resources.
+	 * 
+	 */
+	default <T> Stream<T> streamJsonArrayFile(File file, Class<T> aClass) {
+		return streamJsonArrayFile(file, (Type) aClass);
+	}
+
+	default <T> Stream<T> streamJsonArrayFile(File file, Type elementType) {
+		JsonArrayIterator<T> iterator //
+				= new JsonArrayIterator<T>(file, newBufferedFileReader(file, Charset.defaultCharset()), elementType,
+						GsonRegistry.getGson());
+		return StreamSupport//
+				.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)//
+				.onClose(iterator);
+	}
+
+	default <T> void forEachJsonArrayElement(File file, Class<T> aClass, Consumer<T> consumer) {
+		try (Stream<T> elements = streamJsonArrayFile(file, aClass)) {
+			elements.forEachOrdered(consumer);
+		}
+	}
+
+	public static class JsonArrayIterator<T> implements Iterator<T>, Runnable, Closeable {
+		private final File file;
+		private final Reader reader;
+		private final JsonReader jsonReader;
+		private final TypeAdapter<T> typeAdapter;
+		private boolean closed;
+
+		@SuppressWarnings("unchecked")
+		public JsonArrayIterator(File file, Reader reader, Type elementType, Gson gson) {
+			super();
+			this.file = file;
+			this.reader = reader;
+			this.jsonReader = gson.newJsonReader(reader);
+			this.typeAdapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(elementType));
+			try {
+				jsonReader.beginArray();
+			} catch (IOException | IllegalStateException e) {
+				close();
+				throw new JsonParseException(
+						"Expected a top-level JSON array in file, \"" + file.getAbsolutePath() + "\"", e);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (closed == true) {
+				return false;
+			}
+			try {
+				if (jsonReader.hasNext() == true) {
+					return true;
+				}
+				jsonReader.endArray();
+				close();
+				return false;
+			} catch (IOException e) {
+				close();
+				throw new JsonIOException("Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+			}
+		}
+
+		@Override
+		public T next() {
+			if (hasNext() == false) {
+				throw new NoSuchElementException();
+			}
+			try {
+				return typeAdapter.read(jsonReader);
+			} catch (IOException e) {
+				close();
+				throw new JsonIOException("Could not read file, \"" + file.getAbsolutePath() + "\"", e);
+			}
 		}
 
 		@Override
-		public synchronized JsonElement serialize(Date date, Type type,
-				JsonSerializationContext jsonSerializationContext) {
-			return new JsonPrimitive(dateFormat.format(date));
+		public void run() {
+			close();
 		}
 
 		@Override
-		public synchronized Date deserialize(JsonElement jsonElement, //
-				Type type, //
-				JsonDeserializationContext jsonDeserializationContext) {
-			try {
-				String jsonString = jsonElement.getAsString();
-				if (jsonString.endsWith("Z") == true) {
-					return dateFormatWithZ.parse(jsonString);
-				} else {
-					return dateFormat.parse(jsonString);
+		public void close() {
+			if (closed == false) {
+				closed = true;
+				try {
+					reader.close();
+				} catch (IOException e) {
+					throw new RuntimeException("Could not close file, \"" + file.getAbsolutePath() + "\"", e);
 				}
-			} catch (ParseException e) {
-				throw new JsonParseException(e);
 			}
 		}
 	}
 
-	default Object fromJsonWithGitLabDateFormat(String jsonString, Class<?> aClass) {
-		return new GsonBuilder().disableHtmlEscaping()//
-				.serializeNulls()//
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)//
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer())//
-				.registerTypeAdapter(Date.class, new DateTypeAdapter())//
-				.registerTypeAdapter(java.sql.Date.class, new DateTypeAdapter())//
-				.create()//
-				.fromJson(jsonString, aClass);
-	}
-
-	default <T> T fromJson(String jsonString, Type type) {
-		return new GsonBuilder().disableHtmlEscaping()//
-				.serializeNulls()//
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)//
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer())//
-				.create()//
-				.fromJson(jsonString, type);
-	}
-
-	default <T> T fromJson(String jsonString, Class<T> aClass) {
-		return new GsonBuilder().disableHtmlEscaping()//
-				.serializeNulls()//
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)//
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer())//
-				.create()//
-				.fromJson(jsonString, aClass);
-	}
-
-	default <T> T fromJsonFile(String fileName, Class<T> aClass) {
-		String jsonString = readFilesToString(fileName);
-		return fromJson(jsonString, aClass);
-	}
-
-	default <T> T fromJsonFile(File file, Class<T> aClass) {
-		String jsonString = readFilesToString(file);
-		return fromJson(jsonString, aClass);
-	}
-
 	public static class EncryptionSerializer implements JsonSerializer<EncryptedString> {
 		private final PropertyEncryption propertyEncryption;
 
@@ -368,11 +997,7 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 
 	default Object fromJson(String jsonString, Class<?> aClass, PropertyEncryption propertyEncryption) {
-		return new GsonBuilder().serializeNulls().disableHtmlEscaping()//
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer())
-				.registerTypeAdapter(EncryptedString.class, new DecryptionDeserializer(propertyEncryption))
-				.disableHtmlEscaping().create().fromJson(jsonString, aClass);
+		return GsonRegistry.getDecryptionGson(propertyEncryption).fromJson(jsonString, aClass);
 	}
 
 	default String toPrettyJson(Object object, PropertyEncryption propertyEncryption) {
@@ -380,12 +1005,7 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 			throw new RuntimeException("Not supported yet...");
 			// return toPrettyJson(object, ExposedMethodsListType);
 		}
-		return new GsonBuilder().serializeNulls().disableHtmlEscaping()
-				// .disableHtmlEscaping()
-				.excludeFieldsWithModifiers(Modifier.STATIC, Modifier.TRANSIENT, Modifier.VOLATILE)
-				.registerTypeAdapter(ToolBoxExposedMethods.class, new MethodSerializer())
-				.registerTypeAdapter(EncryptedString.class, new EncryptionSerializer(propertyEncryption))
-				.setPrettyPrinting().create().toJson(object);
+		return GsonRegistry.getPrettyEncryptionGson(propertyEncryption).toJson(object);
 	}
 	// /////////////////////////////////////////////////////////////////////
 	// Browser Support
@@ -448,20 +1068,22 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	// Lines
 
 	default boolean containsFullLine(String string) {
-		final Pattern newlinePattern = Pattern.compile("\\r?\\n");
-		Matcher matcher = newlinePattern.matcher(string);
-		return matcher.find();
+		return string.indexOf('\n') >= 0;
 	}
 
 	default String removeEmptyLines(String string) {
-		String[] lines = getLines(string);
-		List<String> nonEmptyLines = new ArrayList<String>();
-		for (String line : lines) {
-			if (line.trim().equals("") == false) {
-				nonEmptyLines.add(line);
+		StringBuilder stringBuilder = new StringBuilder(string.length());
+		Iterator<CharSequence> lineViews = LineScanner.lineViews(string);
+		while (lineViews.hasNext() == true) {
+			CharSequence line = lineViews.next();
+			if (isBlank(line) == false) {
+				if (stringBuilder.length() > 0) {
+					stringBuilder.append('\n');
+				}
+				stringBuilder.append(line);
 			}
 		}
-		return String.join("\n", nonEmptyLines);
+		return stringBuilder.toString();
 	}
 
 	default String[] toLines(String string) {
@@ -469,12 +1091,31 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 
 	default String[] getLines(String string) {
-		return string.split("\\r?\\n", -1);
+		return LineScanner.split(string);
+	}
+
+	/**
+	 * 
+	 * Lazy variant of {@link #getLines(String)}.
+	 * 
+	 */
+	default Stream<String> streamLines(CharSequence text) {
+		return LineScanner.lines(text);
+	}
+
+	/**
+	 * 
+	 * Reads the file line by line, one line in memory at a time; the stream must
+	 * be closed. Unlike {@link #getLines(String)} there is no empty last line
+	 * after a final line break.
+	 * 
+	 */
+	default Stream<String> streamFileLines(File file, Charset charset) {
+		return LineScanner.lines(newBufferedFileReader(file, charset));
 	}
 
 	default List<String> toLinesList(String string) {
-		String[] lines = getLines(string);
-		return new ArrayList<String>(Arrays.asList(lines));
+		return LineScanner.splitToList(string);
 //                            if (lines.length == 0) {
 //                                            return new ArrayList<String>();
 //                            } else {
@@ -483,16 +1124,27 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 
 	default String[] getNonEmptyLines(String string) {
-		String[] lines = getLines(string);
 		List<String> nonEmptyLines = new ArrayList<String>();
-		for (String line : lines) {
-			if (line.trim().equals("") == false) {
-				nonEmptyLines.add(line);
+		Iterator<CharSequence> lineViews = LineScanner.lineViews(string);
+		while (lineViews.hasNext() == true) {
+			CharSequence line = lineViews.next();
+			if (isBlank(line) == false) {
+				nonEmptyLines.add(line.toString());
 			}
 		}
 		return nonEmptyLines.toArray(new String[nonEmptyLines.size()]);
 	}
 
+	// Same test as line.trim().equals(""), without the copy
+	private static boolean isBlank(CharSequence line) {
+		for (int index = 0; index < line.length(); index++) {
+			if (line.charAt(index) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	default String[] splitParts(String string, String separator) {
 		return string.split(separator, -1);
 	}
@@ -504,60 +1156,416 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 		T getValue(final ResultSet resultSet) throws SQLException;
 	}
 
-	default <T> List<T> getList(//
+	default <T> List<T> getList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			HikariDataSource hikariDataSource, //
+			ListGetter<T> mapper) {
+		return //
+		getList(//
+				queryNameForErrors, //
+				sqlString, //
+				new Object[] {}, //
+				hikariDataSource, //
+				3000, //
+				mapper);
+	}
+
+	default <T> List<T> getList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			HikariDataSource hikariDataSource, //
+			int fetchSize, //
+			ListGetter<T> mapper) {
+		return //
+		getList(//
+				queryNameForErrors, //
+				sqlString, //
+				new Object[] {}, //
+				hikariDataSource, //
+				fetchSize, //
+				mapper);
+	}
+
+	default <T> List<T> getList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			ListGetter<T> mapper) {
+		return //
+		getList(//
+				queryNameForErrors, //
+				sqlString, //
+				args, //
+				hikariDataSource, //
+				3000, //
+				mapper);
+	}
+
+	default <T> List<T> getList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			int fetchSize, //
+			ListGetter<T> mapper) {
+		return //
+		getList(//
+				queryNameForErrors, //
+				sqlString, //
+				args, //
+				hikariDataSource, //
+				fetchSize, //
+				0, //
+				mapper);
+	}
+
+	/**
+	 * 
+	 * @param expectedRowCount pre-sizes the returned list; zero when unknown
+	 * 
+	 */
+	default <T> List<T> getList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			int fetchSize, //
+			int expectedRowCount, //
+			ListGetter<T> mapper) {
+		return //
+		getList(//
+				queryNameForErrors, //
+				sqlString, //
+				args, //
+				hikariDataSource, //
+				fetchSize, //
+				expectedRowCount, //
+				null, //
+				mapper);
+	}
+
+	/**
+	 * 
+	 * @param statementGuard applied to the statement before execution and
+	 *                       released once the rows are read; may be null
+	 * 
+	 */
+	default <T> List<T> getList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			int fetchSize, //
+			int expectedRowCount, //
+			AsyncQueryExecutor.StatementGuard statementGuard, //
+			ListGetter<T> mapper) {
+		// The name is optional, it is only used in error messages unless registered
+		NamedQuery namedQuery = (queryNameForErrors == null) ? null : NamedQuery.find(queryNameForErrors);
+		long startNanos = System.nanoTime();
+		boolean failed = true;
+		try {
+			NovyyListOutcome<T> listOutcome //
+					= new NovyyListOutcome<T>(//
+							fetchSize, //
+							expectedRowCount, //
+							new NovyyListOutcome.Mapping<T>() {
+								@Override
+								public T map(final ResultSet resultSet) throws SQLException {
+									return mapper.getValue(resultSet);
+								}
+							});
+			JdbcSession jdbcSession //
+					= new JdbcSession(hikariDataSource).sql(sqlString);
+			for (Object object : args) {
+				jdbcSession.set(object);
+			}
+			Outcome<List<T>> outcome = listOutcome;
+			if (statementGuard != null) {
+				jdbcSession.prepare(statementGuard);
+				outcome = statementGuard.guard(listOutcome);
+			}
+			List<T> result = jdbcSession//
+					.prepare(listOutcome.fetchSizePreparation())//
+					.select(outcome);
+			failed = false;
+			return result;
+		} catch (SQLException e) {
+			throw new RuntimeException("SQL query failed for " + queryNameForErrors, e);
+		} finally {
+			if (namedQuery != null) {
+				namedQuery.record(System.nanoTime() - startNanos, failed);
+			}
+		}
+	}
+
+	default NamedQuery registerNamedQuery(String queryName, String sqlString) {
+		return NamedQuery.register(queryName, sqlString, 3000);
+	}
+
+	default NamedQuery registerNamedQuery(String queryName, String sqlString, int fetchSize) {
+		return NamedQuery.register(queryName, sqlString, fetchSize);
+	}
+
+	default NamedQuery getNamedQuery(String queryName) {
+		return NamedQuery.get(queryName);
+	}
+
+	/**
+	 * 
+	 * Runs a query registered with {@link #registerNamedQuery(String, String)};
+	 * every execution is timed under that name.
+	 * 
+	 */
+	default <T> List<T> getNamedList(//
+			String queryName, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			ListGetter<T> mapper) {
+		NamedQuery namedQuery = NamedQuery.get(queryName);
+		return getList(queryName, namedQuery.getSqlString(), args, hikariDataSource, namedQuery.getFetchSize(),
+				mapper);
+	}
+
+	default List<Map<String, Object>> queryForNamedList(//
+			String queryName, //
+			Object[] args, //
+			HikariDataSource hikariDataSource) {
+		return queryForList(queryName, NamedQuery.get(queryName).getSqlString(), args, hikariDataSource);
+	}
+
+	default QueryResultCache registerCachedQuery(//
+			String queryName, //
+			long timeToLive, //
+			TimeUnit timeUnit, //
+			long maximumWeightBytes, //
+			long refreshAfter) {
+		return QueryResultCache.register(queryName, timeToLive, timeUnit, maximumWeightBytes, refreshAfter);
+	}
+
+	/**
+	 * 
+	 * Like {@link #getList(String, String, Object[], HikariDataSource, ListGetter)}
+	 * but served from the cache registered with
+	 * {@link #registerCachedQuery(String, long, TimeUnit, long, long)}. The
+	 * returned list is unmodifiable and shared.
+	 * 
+	 */
+	default <T> List<T> getCachedList(//
+			String queryName, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			ListGetter<T> mapper) {
+		return QueryResultCache.get(queryName).get(sqlString, args, new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return getList(queryName, sqlString, args, hikariDataSource, mapper);
+			}
+		});
+	}
+
+	default List<Map<String, Object>> queryForCachedList(//
+			String queryName, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource) {
+		return QueryResultCache.get(queryName).get(sqlString, args, new Callable<List<Map<String, Object>>>() {
+			@Override
+			public List<Map<String, Object>> call() {
+				return queryForList(queryName, sqlString, args, hikariDataSource);
+			}
+		});
+	}
+
+	default void invalidateCachedQuery(String queryName) {
+		QueryResultCache.get(queryName).invalidateAll();
+	}
+
+	default CacheStats getCachedQueryStats(String queryName) {
+		return QueryResultCache.get(queryName).getStats();
+	}
+
+	/**
+	 * 
+	 * HikariCP leaves prepared statement caching to the driver. This turns on
+	 * the driver-level, per-connection cache so repeated executions of the same
+	 * SQL text are not re-prepared. Must be called before the
+	 * {@link HikariDataSource} is created. H2 caches parsed statements per
+	 * session on its own.
+	 * 
+	 */
+	default HikariConfig configureStatementCaching(HikariConfig hikariConfig) {
+		String jdbcUrl = defaultOnEmpty(hikariConfig.getJdbcUrl(), "");
+		if (jdbcUrl.startsWith("jdbc:postgresql:") == true) {
+			hikariConfig.addDataSourceProperty("prepareThreshold", "3");
+			hikariConfig.addDataSourceProperty("preparedStatementCacheQueries", "256");
+			hikariConfig.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+		} else if ((jdbcUrl.startsWith("jdbc:mysql:") == true) || (jdbcUrl.startsWith("jdbc:mariadb:") == true)) {
+			hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+			hikariConfig.addDataSourceProperty("prepStmtCacheSize", "256");
+			hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+			hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+		} else if (jdbcUrl.startsWith("jdbc:oracle:") == true) {
+			hikariConfig.addDataSourceProperty("oracle.jdbc.implicitStatementCacheSize", "256");
+		}
+		return hikariConfig;
+	}
+
+	/**
+	 * 
+	 * Like {@link #getList(String, String, Object[], HikariDataSource, int, ListGetter)}
+	 * but rows are mapped as the stream is consumed. The connection and cursor stay
+	 * open until the stream is exhausted or closed, so use try-with-resources.
+	 * 
+	 */
+	default <T> Stream<T> getStream(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			int fetchSize, //
+			ListGetter<T> mapper) {
+		ResultSetIterator<T> iterator //
+				= getIterator(queryNameForErrors, sqlString, args, hikariDataSource, fetchSize, mapper);
+		return StreamSupport//
+				.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)//
+				.onClose(iterator);
+	}
+
+	default <T> Stream<T> getStream(//
+			String queryNameForErrors, //
+			String sqlString, //
+			HikariDataSource hikariDataSource, //
+			ListGetter<T> mapper) {
+		return getStream(queryNameForErrors, sqlString, new Object[] {}, hikariDataSource, 3000, mapper);
+	}
+
+	default <T> ResultSetIterator<T> getIterator(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource, //
+			int fetchSize, //
+			ListGetter<T> mapper) {
+		return ResultSetIterator.open(queryNameForErrors, sqlString, args, hikariDataSource, fetchSize, mapper);
+	}
+
+	default List<Map<String, Object>> queryForList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			HikariDataSource hikariDataSource) {
+		return queryForList(queryNameForErrors, sqlString, new Object[] {}, hikariDataSource);
+	}
+
+	/**
+	 * 
+	 * Rows are {@link IndexedRowMap}s: values are read by column position and
+	 * share one column name dictionary.
+	 * 
+	 */
+	default List<Map<String, Object>> queryForList(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource) {
+		return //
+		getList(//
+				queryNameForErrors, //
+				sqlString, //
+				args, //
+				hikariDataSource, //
+				new IndexedRowMapGetter());
+	}
+
+	/**
+	 * 
+	 * Reads rows into {@link IndexedRowMap}s; use one instance per query.
+	 * 
+	 */
+	public static class IndexedRowMapGetter implements ListGetter<Map<String, Object>> {
+		private ColumnIndex columnIndex;
+
+		@Override
+		public Map<String, Object> getValue(ResultSet resultSet) throws SQLException {
+			if (columnIndex == null) {
+				columnIndex = ColumnIndex.of(resultSet.getMetaData());
+			}
+			return IndexedRowMap.read(columnIndex, resultSet);
+		}
+	}
+
+	default <T> CompletableFuture<List<T>> getListAsync(//
 			String queryNameForErrors, //
 			String sqlString, //
+			Object[] args, //
 			HikariDataSource hikariDataSource, //
 			ListGetter<T> mapper) {
-		return //
-		getList(//
-				queryNameForErrors, //
-				sqlString, //
-				new Object[] {}, //
-				hikariDataSource, //
-				3000, //
-				mapper);
+		return getListAsync(queryNameForErrors, sqlString, args, hikariDataSource, 0, TimeUnit.SECONDS, mapper);
 	}
 
-	default <T> List<T> getList(//
+	/**
+	 * 
+	 * Runs {@link #getList(String, String, Object[], HikariDataSource, ListGetter)}
+	 * on the data source's {@link AsyncQueryExecutor}. Cancelling the future or
+	 * hitting the timeout cancels the statement.
+	 * 
+	 * @param timeout 0 for no timeout
+	 * 
+	 */
+	default <T> CompletableFuture<List<T>> getListAsync(//
 			String queryNameForErrors, //
 			String sqlString, //
+			Object[] args, //
 			HikariDataSource hikariDataSource, //
-			int fetchSize, //
+			long timeout, //
+			TimeUnit timeUnit, //
 			ListGetter<T> mapper) {
-		return //
-		getList(//
-				queryNameForErrors, //
-				sqlString, //
-				new Object[] {}, //
-				hikariDataSource, //
-				fetchSize, //
-				mapper);
+		return AsyncQueryExecutor.get(hikariDataSource).submit(queryNameForErrors, timeout, timeUnit,
+				new AsyncQueryExecutor.QueryTask<List<T>>() {
+					@Override
+					public List<T> run(AsyncQueryExecutor.StatementGuard statementGuard) {
+						return getList(queryNameForErrors, sqlString, args, hikariDataSource, 3000, 0,
+								statementGuard, mapper);
+					}
+				});
 	}
 
-	default <T> List<T> getList(//
+	default CompletableFuture<List<Map<String, Object>>> queryForListAsync(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource) {
+		return queryForListAsync(queryNameForErrors, sqlString, args, hikariDataSource, 0, TimeUnit.SECONDS);
+	}
+
+	default CompletableFuture<List<Map<String, Object>>> queryForListAsync(//
 			String queryNameForErrors, //
 			String sqlString, //
 			Object[] args, //
 			HikariDataSource hikariDataSource, //
-			ListGetter<T> mapper) {
-		return //
-		getList(//
-				queryNameForErrors, //
-				sqlString, //
-				args, //
-				hikariDataSource, //
-				3000, //
-				mapper);
+			long timeout, //
+			TimeUnit timeUnit) {
+		return getListAsync(queryNameForErrors, sqlString, args, hikariDataSource, timeout, timeUnit,
+				new IndexedRowMapGetter());
 	}
 
-	default <T> List<T> getList(//
+	default ColumnarResult queryForColumns(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Object[] args, //
+			HikariDataSource hikariDataSource) {
+		return queryForColumns(queryNameForErrors, sqlString, args, hikariDataSource, 3000, 0);
+	}
+
+	default ColumnarResult queryForColumns(//
 			String queryNameForErrors, //
 			String sqlString, //
 			Object[] args, //
 			HikariDataSource hikariDataSource, //
 			int fetchSize, //
-			ListGetter<T> mapper) {
+			int expectedRowCount) {
 		try {
 			JdbcSession jdbcSession //
 					= new JdbcSession(hikariDataSource).sql(sqlString);
@@ -566,51 +1574,144 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 			}
 			return //
 			jdbcSession//
-					.select(new NovyyListOutcome<T>(//
-							fetchSize, //
-							new NovyyListOutcome.Mapping<T>() {
-								@Override
-								public T map(final ResultSet resultSet) throws SQLException {
-									return mapper.getValue(resultSet);
-								}
-							}));
+					.prepare(new NovyyListOutcome.FetchSizePreparation(fetchSize))//
+					.select(new ColumnarResult.ColumnarOutcome(expectedRowCount));
 		} catch (SQLException e) {
 			throw new RuntimeException("SQL query failed for " + queryNameForErrors, e);
 		}
 	}
 
-	default List<Map<String, Object>> queryForList(//
+	public static interface ListSetter<T> {
+		void setValues(final PreparedStatement preparedStatement, T value) throws SQLException;
+	}
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	public static final int DEFAULT_COMMIT_EVERY = 10000;
+
+	default <T> BatchUpdateResult batchUpdate(//
 			String queryNameForErrors, //
 			String sqlString, //
-			HikariDataSource hikariDataSource) {
-		return //
-		getList(//
-				queryNameForErrors, //
-				sqlString, //
-				hikariDataSource, //
-				new ListGetter<Map<String, Object>>() {
-					private List<String> columnNames;
-
-					private List<String> getColumnNames(ResultSet resultSet) throws SQLException {
-						if (columnNames == null) {
-							columnNames = new ArrayList<>();
-							ResultSetMetaData rsMetaData = resultSet.getMetaData();
-							for (int i = 1; i <= rsMetaData.getColumnCount(); i++) {
-								columnNames.add(rsMetaData.getColumnName(i));
-							}
-						}
-						return columnNames;
-					}
+			Stream<T> rows, //
+			HikariDataSource hikariDataSource, //
+			ListSetter<T> binder) {
+		try (Stream<T> closingRows = rows) {
+			return batchUpdate(queryNameForErrors, sqlString, closingRows.iterator(), hikariDataSource,
+					DEFAULT_BATCH_SIZE, DEFAULT_COMMIT_EVERY, binder);
+		}
+	}
 
-					@Override
-					public Map<String, Object> getValue(ResultSet resultSet) throws SQLException {
-						Map<String, Object> result = new HashMap<String, Object>();
-						for (String columnName : getColumnNames(resultSet)) {
-							result.put(columnName, resultSet.getObject(columnName));
+	/**
+	 * 
+	 * Runs an INSERT, UPDATE or upsert (e.g. MERGE or INSERT ... ON CONFLICT)
+	 * statement once per row using JDBC batches of {@code batchSize} rows,
+	 * committing once at least {@code commitEvery} rows have been sent since the
+	 * last commit. A failure rolls back the uncommitted rows.
+	 * 
+	 */
+	default <T> BatchUpdateResult batchUpdate(//
+			String queryNameForErrors, //
+			String sqlString, //
+			Iterator<T> rows, //
+			HikariDataSource hikariDataSource, //
+			int batchSize, //
+			int commitEvery, //
+			ListSetter<T> binder) {
+		checkTrue(batchSize > 0);
+		long startNanos = System.nanoTime();
+		long rowCount = 0;
+		long batchCount = 0;
+		long commitCount = 0;
+		long updateCount = 0;
+		long unknownUpdateCount = 0;
+		try (Connection connection = hikariDataSource.getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try (PreparedStatement preparedStatement = connection.prepareStatement(sqlString)) {
+				int rowsInBatch = 0;
+				long rowsSinceCommit = 0;
+				while (rows.hasNext() == true) {
+					binder.setValues(preparedStatement, rows.next());
+					preparedStatement.addBatch();
+					rowCount++;
+					rowsInBatch++;
+					if ((rowsInBatch == batchSize) || (rows.hasNext() == false)) {
+						int[] updateCounts = preparedStatement.executeBatch();
+						updateCount += sumUpdateCounts(updateCounts);
+						unknownUpdateCount += countUnknownUpdateCounts(updateCounts);
+						batchCount++;
+						rowsSinceCommit += rowsInBatch;
+						rowsInBatch = 0;
+						if ((rowsSinceCommit >= commitEvery) || (rows.hasNext() == false)) {
+							connection.commit();
+							commitCount++;
+							rowsSinceCommit = 0;
 						}
-						return result;
 					}
-				});
+				}
+			} catch (SQLException | RuntimeException e) {
+				try {
+					connection.rollback();
+				} catch (SQLException rollbackException) {
+					e.addSuppressed(rollbackException);
+				}
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException("SQL batch update failed for " + queryNameForErrors + " after " + rowCount
+					+ " rows (" + commitCount + " commits)", e);
+		}
+		return BatchUpdateResult.builder()//
+				.queryName(queryNameForErrors)//
+				.rowCount(rowCount)//
+				.batchCount(batchCount)//
+				.commitCount(commitCount)//
+				.updateCount(updateCount)//
+				.unknownUpdateCount(unknownUpdateCount)//
+				.elapsedNanos(System.nanoTime() - startNanos)//
+				.build();
+	}
+
+	// Rewritten batches report SUCCESS_NO_INFO, each of those changed at least one row
+	private static long sumUpdateCounts(int[] updateCounts) {
+		long sum = 0;
+		for (int updateCount : updateCounts) {
+			if (updateCount > 0) {
+				sum += updateCount;
+			} else if (updateCount == Statement.SUCCESS_NO_INFO) {
+				sum++;
+			}
+		}
+		return sum;
+	}
+
+	private static long countUnknownUpdateCounts(int[] updateCounts) {
+		long count = 0;
+		for (int updateCount : updateCounts) {
+			if (updateCount == Statement.SUCCESS_NO_INFO) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 
+	 * Lets drivers that support it rewrite JDBC batches into multi-row INSERTs.
+	 * Must be called before the {@link HikariDataSource} is created. PostgreSQL
+	 * needs driver 9.4.1209 or later for {@code reWriteBatchedInserts}; older
+	 * drivers ignore the property.
+	 * 
+	 */
+	default HikariConfig configureBatchRewriting(HikariConfig hikariConfig) {
+		String jdbcUrl = defaultOnEmpty(hikariConfig.getJdbcUrl(), "");
+		if (jdbcUrl.startsWith("jdbc:postgresql:") == true) {
+			hikariConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
+		} else if ((jdbcUrl.startsWith("jdbc:mysql:") == true) || (jdbcUrl.startsWith("jdbc:mariadb:") == true)) {
+			hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+		}
+		return hikariConfig;
 	}
 
 	default String getStringWithDefault(ResultSet resultSet, String columnName, String defaultValue)
@@ -659,23 +1760,372 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 		return getNamedThreadFactory(aClass.getSimpleName() + "-" + namePrefix);
 	}
 
+	default ThreadFactory getDaemonThreadFactory(String namePrefix) {
+		return NamedThreadFactory.getDaemonThreadFactory(namePrefix);
+	}
+
 	default int getAvailableProcessors() {
 		return Runtime.getRuntime().availableProcessors();
 	}
 
-	public static class ScheduledExecutor {
-		private final ExecutorService executorService;
-		private final ScheduledExecutorService scheduledExecutorService;
+	/**
+	 * 
+	 * Bounded worker pool plus a small scheduler. Work submitted with
+	 * {@link #execute(Runnable)} or {@link #submit(Callable)} waits in a bounded
+	 * queue; once the queue and the pool are full the {@link RejectionPolicy}
+	 * applies, by default the caller runs the task itself, which slows producers
+	 * down instead of growing threads or memory.
+	 * 
+	 * <p>
+	 * 
+	 * Delayed and periodic tasks run on the scheduler threads and should be short,
+	 * or hand longer work to {@link #execute(Runnable)}. Queue wait and run time
+	 * of every task go to the {@link ToolBoxMetrics} timers
+	 * "&lt;prefix&gt;.queueWait" and "&lt;prefix&gt;.run", next to the gauges
+	 * "&lt;prefix&gt;.queueDepth" and "&lt;prefix&gt;.activeCount". Executors
+	 * that share a thread pool name prefix get "&lt;prefix&gt;-2" and so on, and
+	 * shutting down removes the executor's metrics.
+	 * 
+	 * </p>
+	 * 
+	 */
+	public static class ScheduledExecutor implements AutoCloseable {
+		public static final int DEFAULT_QUEUE_CAPACITY_PER_THREAD = 1000;
+		public static final int DEFAULT_SCHEDULER_THREADS = 2;
+		public static final int DEFAULT_MAXIMUM_SCHEDULED_TASKS = 10000;
+		public static final long DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+		public static enum RejectionPolicy {
+			/** Throws {@link RejectedExecutionException} */
+			ABORT,
+			/** Runs the task on the submitting thread, the default */
+			CALLER_RUNS,
+			/** Drops the task, a returned future is cancelled */
+			DISCARD,
+			/** Drops the oldest queued task and queues this one */
+			DISCARD_OLDEST;
+		}
+
+		@Builder
+		@Data
+		public static class Metrics {
+			private final String threadPoolNamePrefix;
+			private final String metricNamePrefix;
+			private final int poolSize;
+			private final int maximumPoolSize;
+			private final int activeCount;
+			private final int queueDepth;
+			private final int queueCapacity;
+			private final int scheduledCount;
+			private final long completedCount;
+			private final long rejectedCount;
+			private final LatencyHistogram.Snapshot queueWait;
+			private final LatencyHistogram.Snapshot run;
+		}
 
+		// Metric name prefixes of the live executors
+		private static final Set<String> metricNamePrefixes = ConcurrentHashMap.newKeySet();
+
+		private final String threadPoolNamePrefix;
+		private final String metricNamePrefix;
+		private final AtomicBoolean metricsRemoved = new AtomicBoolean();
+		private final ThreadPoolExecutor executorService;
+		private final ScheduledThreadPoolExecutor scheduledExecutorService;
+		private final int queueCapacity;
+		private final int maximumScheduledTasks;
+		private final AtomicLong rejectedCount = new AtomicLong();
+		private final ToolBoxMetrics.Timer queueWaitTimer;
+		private final ToolBoxMetrics.Timer runTimer;
+
+		/**
+		 * 
+		 * @param coreSize worker threads; zero or less means one per available
+		 *                 processor
+		 * 
+		 */
 		public ScheduledExecutor(int coreSize, String threadPoolNamePrefix) {
+			this(coreSize, 0, RejectionPolicy.CALLER_RUNS, threadPoolNamePrefix);
+		}
+
+		/**
+		 * 
+		 * @param queueCapacity zero or less means
+		 *                      {@link #DEFAULT_QUEUE_CAPACITY_PER_THREAD} per worker
+		 * 
+		 */
+		public ScheduledExecutor(int coreSize, int queueCapacity, RejectionPolicy rejectionPolicy,
+				String threadPoolNamePrefix) {
+			this(coreSize, queueCapacity, rejectionPolicy, DEFAULT_SCHEDULER_THREADS, DEFAULT_MAXIMUM_SCHEDULED_TASKS,
+					threadPoolNamePrefix);
+		}
+
+		public ScheduledExecutor(int coreSize, int queueCapacity, RejectionPolicy rejectionPolicy,
+				int schedulerThreads, int maximumScheduledTasks, String threadPoolNamePrefix) {
 			super();
+			int workerThreads = (coreSize > 0) ? coreSize : ToolBoxInstance.get().getAvailableProcessors();
+			this.threadPoolNamePrefix = threadPoolNamePrefix;
+			this.queueCapacity = (queueCapacity > 0) ? queueCapacity
+					: workerThreads * DEFAULT_QUEUE_CAPACITY_PER_THREAD;
+			this.maximumScheduledTasks = maximumScheduledTasks;
 			this.executorService //
-					= new ThreadPoolExecutor(100, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
-							new SynchronousQueue<Runnable>());
+					= new ThreadPoolExecutor(workerThreads, workerThreads, 60L, TimeUnit.SECONDS,
+							new ArrayBlockingQueue<Runnable>(this.queueCapacity),
+							NamedThreadFactory.getNamedThreadFactory(threadPoolNamePrefix + "Executor"),
+							newRejectedExecutionHandler(rejectionPolicy));
+			this.executorService.allowCoreThreadTimeOut(true);
 			this.scheduledExecutorService //
-					= Executors//
-							.newScheduledThreadPool(2, NamedThreadFactory//
-									.getNamedThreadFactory(threadPoolNamePrefix + "ScheduledExecutorService"));
+					= new ScheduledThreadPoolExecutor(Math.max(1, schedulerThreads), NamedThreadFactory//
+							.getNamedThreadFactory(threadPoolNamePrefix + "ScheduledExecutorService"));
+			// Cancelled periodic tasks would otherwise stay queued until their next run
+			this.scheduledExecutorService.setRemoveOnCancelPolicy(true);
+			this.metricNamePrefix = claimMetricNamePrefix(threadPoolNamePrefix);
+			this.queueWaitTimer = ToolBoxMetrics.timer(metricNamePrefix + ".queueWait");
+			this.runTimer = ToolBoxMetrics.timer(metricNamePrefix + ".run");
+			ToolBoxMetrics.gauge(metricNamePrefix + ".queueDepth", new Supplier<Integer>() {
+				@Override
+				public Integer get() {
+					return executorService.getQueue().size();
+				}
+			});
+			ToolBoxMetrics.gauge(metricNamePrefix + ".activeCount", new Supplier<Integer>() {
+				@Override
+				public Integer get() {
+					return executorService.getActiveCount();
+				}
+			});
+		}
+
+		public void execute(Runnable runnable) {
+			executorService.execute(new TimedRunnable(runnable, System.nanoTime()));
+		}
+
+		public <T> Future<T> submit(Callable<T> callable) {
+			FutureTask<T> futureTask = new FutureTask<T>(callable);
+			executorService.execute(new TimedRunnable(futureTask, System.nanoTime()));
+			return futureTask;
+		}
+
+		public Future<?> submit(Runnable runnable) {
+			FutureTask<Object> futureTask = new FutureTask<Object>(runnable, null);
+			executorService.execute(new TimedRunnable(futureTask, System.nanoTime()));
+			return futureTask;
+		}
+
+		public ScheduledFuture<?> schedule(Runnable runnable, long delay, TimeUnit unit) {
+			checkScheduledCapacity();
+			return scheduledExecutorService.schedule(new TimedRunnable(runnable, -1), delay, unit);
+		}
+
+		public <T> ScheduledFuture<T> schedule(Callable<T> callable, long delay, TimeUnit unit) {
+			checkScheduledCapacity();
+			return scheduledExecutorService.schedule(new Callable<T>() {
+				@Override
+				public T call() throws Exception {
+					long startNanos = System.nanoTime();
+					try {
+						return callable.call();
+					} finally {
+						runTimer.stop(startNanos);
+					}
+				}
+			}, delay, unit);
+		}
+
+		/**
+		 * 
+		 * A run that throws stops the schedule, as with
+		 * {@link ScheduledExecutorService}; it is logged through {@link Logit}.
+		 * 
+		 */
+		public ScheduledFuture<?> scheduleAtFixedRate(Runnable runnable, long initialDelay, long period,
+				TimeUnit unit) {
+			checkScheduledCapacity();
+			return scheduledExecutorService.scheduleAtFixedRate(new TimedRunnable(runnable, -1), initialDelay,
+					period, unit);
+		}
+
+		public ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable, long initialDelay, long delay,
+				TimeUnit unit) {
+			checkScheduledCapacity();
+			return scheduledExecutorService.scheduleWithFixedDelay(new TimedRunnable(runnable, -1), initialDelay,
+					delay, unit);
+		}
+
+		public Metrics getMetrics() {
+			return Metrics.builder()//
+					.threadPoolNamePrefix(threadPoolNamePrefix)//
+					.metricNamePrefix(metricNamePrefix)//
+					.poolSize(executorService.getPoolSize())//
+					.maximumPoolSize(executorService.getMaximumPoolSize())//
+					.activeCount(executorService.getActiveCount())//
+					.queueDepth(executorService.getQueue().size())//
+					.queueCapacity(queueCapacity)//
+					.scheduledCount(scheduledExecutorService.getQueue().size())//
+					.completedCount(executorService.getCompletedTaskCount())//
+					.rejectedCount(rejectedCount.get())//
+					.queueWait(queueWaitTimer.getLatencyHistogram().getSnapshot())//
+					.run(runTimer.getLatencyHistogram().getSnapshot())//
+					.build();
+		}
+
+		public String getMetricNamePrefix() {
+			return metricNamePrefix;
+		}
+
+		/**
+		 * 
+		 * Stops accepting tasks, cancels delayed and periodic ones, and waits for
+		 * queued and running work to finish; interrupts whatever is still running
+		 * after the timeout. Then removes the executor's metrics.
+		 * 
+		 * @return true when everything finished within the timeout
+		 * 
+		 */
+		public boolean shutdown(long timeout, TimeUnit unit) {
+			scheduledExecutorService.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			scheduledExecutorService.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+			scheduledExecutorService.shutdown();
+			executorService.shutdown();
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			try {
+				boolean terminated = executorService.awaitTermination(deadline - System.nanoTime(),
+						TimeUnit.NANOSECONDS);
+				terminated = scheduledExecutorService.awaitTermination(deadline - System.nanoTime(),
+						TimeUnit.NANOSECONDS) && terminated;
+				if (terminated == false) {
+					shutdownNow();
+				}
+				removeMetrics();
+				return terminated;
+			} catch (InterruptedException e) {
+				shutdownNow();
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		/**
+		 * 
+		 * Interrupts running tasks, and cancels queued and scheduled ones so that
+		 * nobody waits forever on their futures. Removes the executor's metrics.
+		 * 
+		 */
+		public void shutdownNow() {
+			for (Runnable runnable : scheduledExecutorService.shutdownNow()) {
+				cancel(runnable);
+			}
+			for (Runnable runnable : executorService.shutdownNow()) {
+				cancel(runnable);
+			}
+			removeMetrics();
+		}
+
+		public boolean isShutdown() {
+			return executorService.isShutdown();
+		}
+
+		@Override
+		public void close() {
+			shutdown(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+
+		private void checkScheduledCapacity() {
+			if (scheduledExecutorService.getQueue().size() >= maximumScheduledTasks) {
+				rejectedCount.incrementAndGet();
+				throw new RejectedExecutionException(threadPoolNamePrefix + ": More than " + maximumScheduledTasks
+						+ " delayed or periodic tasks are pending");
+			}
+		}
+
+		private RejectedExecutionHandler newRejectedExecutionHandler(RejectionPolicy rejectionPolicy) {
+			return new RejectedExecutionHandler() {
+				@Override
+				public void rejectedExecution(Runnable runnable, ThreadPoolExecutor threadPoolExecutor) {
+					rejectedCount.incrementAndGet();
+					if (threadPoolExecutor.isShutdown() == true) {
+						cancel(runnable);
+						throw new RejectedExecutionException(threadPoolNamePrefix + ": Executor is shut down");
+					}
+					switch (rejectionPolicy) {
+					case CALLER_RUNS:
+						runnable.run();
+						break;
+					case DISCARD:
+						cancel(runnable);
+						break;
+					case DISCARD_OLDEST:
+						cancel(threadPoolExecutor.getQueue().poll());
+						threadPoolExecutor.execute(runnable);
+						break;
+					case ABORT:
+					default:
+						cancel(runnable);
+						throw new RejectedExecutionException(threadPoolNamePrefix + ": Queue of " + queueCapacity
+								+ " tasks and all " + threadPoolExecutor.getMaximumPoolSize() + " threads are busy");
+					}
+				}
+			};
+		}
+
+		// Queued work is a TimedRunnable around a FutureTask, scheduled work is a
+		// ScheduledFuture itself
+		private static void cancel(Runnable runnable) {
+			if ((runnable instanceof TimedRunnable) && (((TimedRunnable) runnable).runnable instanceof Future)) {
+				((Future<?>) ((TimedRunnable) runnable).runnable).cancel(false);
+			} else if (runnable instanceof Future) {
+				((Future<?>) runnable).cancel(false);
+			}
+		}
+
+		private static String claimMetricNamePrefix(String threadPoolNamePrefix) {
+			if (metricNamePrefixes.add(threadPoolNamePrefix) == true) {
+				return threadPoolNamePrefix;
+			}
+			for (int sequence = 2;; sequence++) {
+				String metricNamePrefix = threadPoolNamePrefix + "-" + sequence;
+				if (metricNamePrefixes.add(metricNamePrefix) == true) {
+					return metricNamePrefix;
+				}
+			}
+		}
+
+		private void removeMetrics() {
+			if (metricsRemoved.compareAndSet(false, true) == false) {
+				return;
+			}
+			ToolBoxMetrics.remove(metricNamePrefix + ".queueWait");
+			ToolBoxMetrics.remove(metricNamePrefix + ".run");
+			ToolBoxMetrics.remove(metricNamePrefix + ".queueDepth");
+			ToolBoxMetrics.remove(metricNamePrefix + ".activeCount");
+			metricNamePrefixes.remove(metricNamePrefix);
+		}
+
+		private final class TimedRunnable implements Runnable {
+			private final Runnable runnable;
+			// -1 for scheduled tasks, their wait is intended
+			private final long queuedNanos;
+
+			TimedRunnable(Runnable runnable, long queuedNanos) {
+				super();
+				this.runnable = runnable;
+				this.queuedNanos = queuedNanos;
+			}
+
+			@Override
+			public void run() {
+				long startNanos = System.nanoTime();
+				if (queuedNanos != -1) {
+					queueWaitTimer.record(startNanos - queuedNanos);
+				}
+				try {
+					runnable.run();
+				} catch (RuntimeException | Error e) {
+					Logit.getLogit(ScheduledExecutor.class).error("{}: Task failed, {}", threadPoolNamePrefix, e);
+					throw e;
+				} finally {
+					runTimer.stop(startNanos);
+				}
+			}
 		}
 	}
 	/////////////////
@@ -765,12 +2215,27 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 				getNamedThreadFactory(getClass(), aClass.getSimpleName() + "ScheduledExecutorService"));
 	}
 
+	/**
+	 * 
+	 * @param coreSize zero or less means one worker per available processor
+	 * 
+	 */
+	default ScheduledExecutor createScheduledExecutor(Class<?> aClass, int coreSize) {
+		return new ScheduledExecutor(coreSize, aClass.getSimpleName());
+	}
+
+	/**
+	 * 
+	 * Prints the execution time. Nothing is kept per name, so any number of
+	 * one-off names is fine; use {@link #timeItQuietly(String, Runnable)} to
+	 * record into a timer.
+	 * 
+	 */
 	default void timeIt(String runnableName, Runnable runnable) {
-		Instant start = Instant.now();
 		System.out.println("Starting RUNNABLE_NAME".replace("RUNNABLE_NAME", runnableName));
+		long startNanos = System.nanoTime();
 		runnable.run();
-		Instant finish = Instant.now();
-		Duration duration = Duration.between(start, finish);
+		Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
 		System.out.println("RUNNABLE_NAME execution time: DURATION"//
 				.replace("RUNNABLE_NAME", runnableName)//
 				.replace("DURATION", duration.toString()));
@@ -780,6 +2245,24 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 				.replace("TIME_ELAPSED", String.valueOf(timeElapsed)));
 	}
 
+	/**
+	 * 
+	 * Records the execution time into the {@link ToolBoxMetrics#timer(String)}
+	 * named {@code timerName} without printing, cheap enough for hot paths.
+	 * 
+	 */
+	default void timeItQuietly(String timerName, Runnable runnable) {
+		ToolBoxMetrics.timer(timerName).time(runnable);
+	}
+
+	default <T> T timeItQuietly(String timerName, Supplier<T> supplier) {
+		return ToolBoxMetrics.timer(timerName).time(supplier);
+	}
+
+	default ScheduledFuture<?> exportMetricsPeriodically(long period, TimeUnit unit, LogitLevel logitLevel) {
+		return ToolBoxMetrics.exportPeriodically(period, unit, ToolBoxMetrics.toLogit(logitLevel));
+	}
+
 	default void waitForIt(String objectName, Supplier<Boolean> isInitialized) {
 		Instant start = Instant.now();
 		System.out.println("Initializing OBJECT_NAME instance".replace("OBJECT_NAME", objectName));
@@ -800,6 +2283,13 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 	////////////////////////////////////////////////////////////////////////////////////
 
+	/**
+	 * 
+	 * Per-thread override of the logit level, inherited by child threads. Without
+	 * it the level comes from {@link Logit} for the implementing class, see
+	 * {@link Logit#setLevel(String, LogitLevel)}.
+	 * 
+	 */
 	public static InheritableThreadLocal<LogitLevel> _logitLevel = new InheritableThreadLocal<>();
 
 	default void setLogitLevel(LogitLevel logitLevelValue) {
@@ -809,45 +2299,99 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	default LogitLevel getLogitLevel() {
 		LogitLevel logitLevelThreadSpecific = _logitLevel.get();
 		if (logitLevelThreadSpecific == null) {
-			return LogitLevel.Error;
+			return getLogit().getLevel();
 		} else {
 			return logitLevelThreadSpecific;
 		}
 	}
 
+	default Logit getLogit() {
+		return Logit.getLogit(getClass());
+	}
+
+	default boolean isLogitEnabled(LogitLevel logitLevel) {
+		return Logit.isEnabled(logitLevel, getLogitLevel());
+	}
+
+	/**
+	 * 
+	 * Waits until the logit messages logged so far are written, e.g. before
+	 * handing the console to another process.
+	 * 
+	 */
+	default boolean flushLogit(long timeout, TimeUnit unit) {
+		return LogitSink.get().flush(timeout, unit);
+	}
+
 	default void logitError(String message) {
-		switch (getLogitLevel()) {
-		case Error:
-			System.out.println(message);
-			break;
-		default:
-			// Do nothing
-			break;
+		if (isLogitEnabled(LogitLevel.Error) == true) {
+			LogitSink.get().log(LogitLevel.Error, message);
+		}
+	}
+
+	default void logitError(Supplier<String> messageSupplier) {
+		if (isLogitEnabled(LogitLevel.Error) == true) {
+			LogitSink.get().log(LogitLevel.Error, messageSupplier.get());
+		}
+	}
+
+	default void logitError(String pattern, Object argument) {
+		if (isLogitEnabled(LogitLevel.Error) == true) {
+			LogitSink.get().log(LogitLevel.Error, Logit.format(pattern, argument));
+		}
+	}
+
+	default void logitError(String pattern, Object... arguments) {
+		if (isLogitEnabled(LogitLevel.Error) == true) {
+			LogitSink.get().log(LogitLevel.Error, Logit.format(pattern, arguments));
 		}
 	}
 
 	default void logitInfo(String message) {
-		switch (getLogitLevel()) {
-		case Info:
-		case Debug:
-			System.out.println(message);
-			break;
-		default:
-			// Do nothing
-			break;
+		if (isLogitEnabled(LogitLevel.Info) == true) {
+			LogitSink.get().log(LogitLevel.Info, message);
+		}
+	}
+
+	default void logitInfo(Supplier<String> messageSupplier) {
+		if (isLogitEnabled(LogitLevel.Info) == true) {
+			LogitSink.get().log(LogitLevel.Info, messageSupplier.get());
+		}
+	}
+
+	default void logitInfo(String pattern, Object argument) {
+		if (isLogitEnabled(LogitLevel.Info) == true) {
+			LogitSink.get().log(LogitLevel.Info, Logit.format(pattern, argument));
+		}
+	}
+
+	default void logitInfo(String pattern, Object... arguments) {
+		if (isLogitEnabled(LogitLevel.Info) == true) {
+			LogitSink.get().log(LogitLevel.Info, Logit.format(pattern, arguments));
 		}
 	}
 
 	default void logitDebug(String message) {
-		switch (getLogitLevel()) {
-		case Info:
-		case Error:
-		case Debug:
-			System.out.println(message);
-			break;
-		default:
-			// Do nothing
-			break;
+		if (isLogitEnabled(LogitLevel.Debug) == true) {
+			LogitSink.get().log(LogitLevel.Debug, message);
+		}
+	}
+
+	default void logitDebug(Supplier<String> messageSupplier) {
+		if (isLogitEnabled(LogitLevel.Debug) == true) {
+			LogitSink.get().log(LogitLevel.Debug, messageSupplier.get());
+		}
+	}
+
+	default void logitDebug(String pattern, Object argument) {
+		if (isLogitEnabled(LogitLevel.Debug) == true) {
+			LogitSink.get().log(LogitLevel.Debug, Logit.format(pattern, argument));
+		}
+	}
+
+	default void logitDebug(String pattern, Object... arguments) {
+		if (isLogitEnabled(LogitLevel.Debug) == true) {
+			LogitSink.get().log(LogitLevel.Debug, Logit.format(pattern, arguments));
 		}
 	}
 	///////////
@@ -880,6 +2424,15 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 	}
 	///////////////////
 
+	/**
+	 * 
+	 * Starts without printing, for {@link ElapsedTime#recordTimeSoFar(String)}.
+	 * 
+	 */
+	default ElapsedTime startElapsedTime() {
+		return new ElapsedTime();
+	}
+
 	default ElapsedTime startElapsedTime(String startMessage) {
 		ElapsedTime elapsedTime = new ElapsedTime();
 		elapsedTime.printTimeSoFar(startMessage);
@@ -904,6 +2457,7 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 
 	public static class ElapsedTime {
 		public final long startTime;
+		public final long startNanos;
 		private int counter;
 		private final PrintStream printStream;
 
@@ -911,12 +2465,27 @@ public interface ToolBox extends UtilsCommons, ValueChecks, FileListingUtils, Co
 			super();
 			this.printStream = System.out;
 			this.startTime = System.currentTimeMillis();
+			this.startNanos = System.nanoTime();
 		}
 
 		public ElapsedTime(PrintStream printStream) {
 			super();
 			this.printStream = printStream;
 			this.startTime = System.currentTimeMillis();
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * 
+		 * Records the time since the start into the
+		 * {@link ToolBoxMetrics#timer(String)} named {@code timerName} instead of
+		 * printing it.
+		 * 
+		 * @return the elapsed nanoseconds
+		 * 
+		 */
+		public long recordTimeSoFar(String timerName) {
+			return ToolBoxMetrics.timer(timerName).stop(startNanos);
 		}
 
 		public void printTimeSoFar(String message) {
@@ -0,0 +1,273 @@
+package com.dieharddev.toolbox;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ *
+ * Process-wide named timers, counters and gauges. Timers measure with
+ * {@link System#nanoTime()} into a {@link LatencyHistogram}; nothing is printed
+ * per call, take a {@link #getSnapshot()} or export one periodically as JSON or
+ * a log line instead.
+ *
+ */
+public final class ToolBoxMetrics {
+	private static final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+	private static final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+	private static final ConcurrentHashMap<String, Supplier<? extends Number>> gauges //
+			= new ConcurrentHashMap<String, Supplier<? extends Number>>();
+	private static final ScheduledExecutorService exportScheduledExecutorService //
+			= Executors.newSingleThreadScheduledExecutor(
+					NamedThreadFactory.getDaemonThreadFactory("ToolBoxMetricsExport"));
+
+	@Builder
+	@Data
+	public static class MetricsSnapshot {
+		private final Instant timestamp;
+		private final Map<String, LatencyHistogram.Snapshot> timers;
+		private final Map<String, Long> counters;
+		private final Map<String, Number> gauges;
+
+		public String toJson() {
+			// Has the Instant adapter, plain reflection can not reach java.time internals
+			return GsonRegistry.getGitLabDateGson().toJson(this);
+		}
+
+		/**
+		 *
+		 * One line, e.g. "metrics query.users=[count=10 p50=1.2ms p99=3.4ms
+		 * p999=3.4ms max=3.4ms] files.read=42"
+		 *
+		 */
+		public String toLogLine() {
+			StringBuilder stringBuilder = new StringBuilder("metrics");
+			for (Map.Entry<String, LatencyHistogram.Snapshot> timer : timers.entrySet()) {
+				LatencyHistogram.Snapshot snapshot = timer.getValue();
+				stringBuilder.append(' ').append(timer.getKey())//
+						.append("=[count=").append(snapshot.getCount())//
+						.append(" p50=").append(snapshot.getP50Millis())//
+						.append("ms p99=").append(snapshot.getP99Millis())//
+						.append("ms p999=").append(snapshot.getP999Millis())//
+						.append("ms max=").append(snapshot.getMaximumMillis())//
+						.append("ms]");
+			}
+			for (Map.Entry<String, Long> counter : counters.entrySet()) {
+				stringBuilder.append(' ').append(counter.getKey()).append('=').append(counter.getValue());
+			}
+			for (Map.Entry<String, Number> gauge : gauges.entrySet()) {
+				stringBuilder.append(' ').append(gauge.getKey()).append('=').append(gauge.getValue());
+			}
+			return stringBuilder.toString();
+		}
+	}
+
+	public static final class Timer {
+		private final String timerName;
+		private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+		private Timer(String timerName) {
+			super();
+			this.timerName = timerName;
+		}
+
+		public String getTimerName() {
+			return timerName;
+		}
+
+		public LatencyHistogram getLatencyHistogram() {
+			return latencyHistogram;
+		}
+
+		public void record(long elapsedNanos) {
+			latencyHistogram.record(elapsedNanos);
+		}
+
+		public void record(long duration, TimeUnit unit) {
+			latencyHistogram.record(unit.toNanos(duration));
+		}
+
+		/**
+		 *
+		 * @return the {@link System#nanoTime()} to pass to {@link #stop(long)}
+		 *
+		 */
+		public long start() {
+			return System.nanoTime();
+		}
+
+		/**
+		 *
+		 * @return the elapsed nanoseconds, as recorded
+		 *
+		 */
+		public long stop(long startNanos) {
+			long elapsedNanos = System.nanoTime() - startNanos;
+			latencyHistogram.record(elapsedNanos);
+			return elapsedNanos;
+		}
+
+		public void time(Runnable runnable) {
+			long startNanos = System.nanoTime();
+			try {
+				runnable.run();
+			} finally {
+				stop(startNanos);
+			}
+		}
+
+		public <T> T time(Supplier<T> supplier) {
+			long startNanos = System.nanoTime();
+			try {
+				return supplier.get();
+			} finally {
+				stop(startNanos);
+			}
+		}
+	}
+
+	public static final class Counter {
+		private final LongAdder value = new LongAdder();
+
+		private Counter() {
+			super();
+		}
+
+		public void increment() {
+			value.increment();
+		}
+
+		public void add(long amount) {
+			value.add(amount);
+		}
+
+		public long get() {
+			return value.sum();
+		}
+	}
+
+	private ToolBoxMetrics() {
+	}
+
+	public static Timer timer(String timerName) {
+		Timer timer = timers.get(timerName);
+		if (timer == null) {
+			Timer newTimer = new Timer(timerName);
+			timer = timers.putIfAbsent(timerName, newTimer);
+			if (timer == null) {
+				timer = newTimer;
+			}
+		}
+		return timer;
+	}
+
+	public static Counter counter(String counterName) {
+		Counter counter = counters.get(counterName);
+		if (counter == null) {
+			Counter newCounter = new Counter();
+			counter = counters.putIfAbsent(counterName, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 *
+	 * @param valueSupplier read at snapshot time only, replaces an earlier gauge of
+	 *                      the same name
+	 *
+	 */
+	public static void gauge(String gaugeName, Supplier<? extends Number> valueSupplier) {
+		gauges.put(gaugeName, valueSupplier);
+	}
+
+	public static void remove(String metricName) {
+		timers.remove(metricName);
+		counters.remove(metricName);
+		gauges.remove(metricName);
+	}
+
+	public static MetricsSnapshot getSnapshot() {
+		Map<String, LatencyHistogram.Snapshot> timerSnapshots = new TreeMap<String, LatencyHistogram.Snapshot>();
+		for (Timer timer : timers.values()) {
+			timerSnapshots.put(timer.getTimerName(), timer.getLatencyHistogram().getSnapshot());
+		}
+		Map<String, Long> counterValues = new TreeMap<String, Long>();
+		for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+			counterValues.put(counter.getKey(), counter.getValue().get());
+		}
+		Map<String, Number> gaugeValues = new TreeMap<String, Number>();
+		for (Map.Entry<String, Supplier<? extends Number>> gauge : gauges.entrySet()) {
+			try {
+				gaugeValues.put(gauge.getKey(), gauge.getValue().get());
+			} catch (RuntimeException e) {
+				// A failing gauge must not break the export of the others
+			}
+		}
+		return MetricsSnapshot.builder()//
+				.timestamp(Instant.now())//
+				.timers(timerSnapshots)//
+				.counters(counterValues)//
+				.gauges(gaugeValues)//
+				.build();
+	}
+
+	/**
+	 *
+	 * Passes a snapshot to {@code exporter} every {@code period} on a daemon
+	 * thread; cancel the returned future to stop.
+	 *
+	 */
+	public static ScheduledFuture<?> exportPeriodically(long period, TimeUnit unit,
+			Consumer<MetricsSnapshot> exporter) {
+		return exportScheduledExecutorService.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					exporter.accept(getSnapshot());
+				} catch (RuntimeException e) {
+					// Keep exporting, a failed run would otherwise cancel the schedule
+					Logit.getLogit(ToolBoxMetrics.class).error("exportPeriodically(): Export failed, {}", e);
+				}
+			}
+		}, period, period, unit);
+	}
+
+	public static Consumer<MetricsSnapshot> toLogit(LogitLevel logitLevel) {
+		return new Consumer<MetricsSnapshot>() {
+			@Override
+			public void accept(MetricsSnapshot metricsSnapshot) {
+				Logit.getLogit(ToolBoxMetrics.class).log(logitLevel, metricsSnapshot.toLogLine());
+			}
+		};
+	}
+
+	/**
+	 *
+	 * Overwrites {@code file} with the latest snapshot as JSON.
+	 *
+	 */
+	public static Consumer<MetricsSnapshot> toJsonFile(File file) {
+		return new Consumer<MetricsSnapshot>() {
+			@Override
+			public void accept(MetricsSnapshot metricsSnapshot) {
+				ToolBox.ToolBoxInstance.get().writeFile(file, metricsSnapshot.toJson(), StandardCharsets.UTF_8, false);
+			}
+		};
+	}
+}
@@ -3,7 +3,8 @@ package com.dieharddev.toolbox;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.text.ParseException;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
@@ -15,7 +16,6 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.text.WordUtils;
-import org.joda.time.DateTime;
 
 public interface UtilsCommons extends Conversions {
 	default String unquote(String string) {
@@ -287,36 +287,50 @@ public interface UtilsCommons extends Conversions {
 	/////////////////////////////////////////////////////////////////////////
 	// Date Strings
 
+	// Immutable, shared formatters; each remembers the last formatted millisecond
+	public final static CachedDateFormatter prettyDateFormatter = new CachedDateFormatter("MMM/dd/yyy HH:mm:ss",
+			true);
+	public final static CachedDateFormatter fileTimeStampFormatter = new CachedDateFormatter(
+			"yyyy.MM.dd-HH~mm~ssa-SSS", true);
+	public final static CachedDateFormatter parsableDateFormatter = new CachedDateFormatter(
+			"yyyy-MM-dd_HH-mm-ss-SSS", true);
+
 	default String getPrettyDateString() {
-		return getPrettyDateString(new Date());
+		return prettyDateFormatter.format(System.currentTimeMillis());
 	}
 
 	default String getPrettyDateString(Date date) {
-		return new SimpleDateFormat("MMM/dd/yyy HH:mm:ss").format(date);
+		return prettyDateFormatter.format(date.getTime());
 	}
 
 	default String fileTimeStampString() {
-		return new DateTime().toString("yyyy.MM.dd-HH~mm~ssa-SSS");
+		return fileTimeStampFormatter.format(System.currentTimeMillis());
 	}
 
 	default String getDateString() {
-		return new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss-SSS").format(new Date());
+		return parsableDateFormatter.format(System.currentTimeMillis());
 	}
 
 	default String getFileDateSuffix() {
-		return new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss-SSS").format(new Date());
+		return parsableDateFormatter.format(System.currentTimeMillis());
 	}
 
+	/**
+	 * 
+	 * Not thread-safe; kept for existing callers. Use
+	 * {@link #getParsableDateString(Date)} and {@link #parsableDateString(String)}.
+	 * 
+	 */
 	public final static SimpleDateFormat parsableSimpleDateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss-SSS");
 
 	default String getParsableDateString(Date date) {
-		return parsableSimpleDateFormat.format(date);
+		return parsableDateFormatter.format(date.getTime());
 	}
 
 	default Date parsableDateString(String dateString) {
 		try {
-			return parsableSimpleDateFormat.parse(dateString);
-		} catch (ParseException e) {
+			return Date.from(Instant.from(parsableDateFormatter.getDateTimeFormatter().parse(dateString)));
+		} catch (DateTimeException e) {
 			throw new RuntimeException("Failed to ParsableDateString, " + quoted(dateString), e);
 		}
 	}
@@ -0,0 +1,139 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dieharddev.toolbox.ToolBox.ListGetter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class AsyncQueryExecutorTest {
+	private static final ListGetter<Long> LONG_GETTER = new ListGetter<Long>() {
+		@Override
+		public Long getValue(ResultSet resultSet) throws SQLException {
+			return resultSet.getLong(1);
+		}
+	};
+
+	private static HikariDataSource hikariDataSource;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@BeforeClass
+	public static void createDataSource() {
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setJdbcUrl("jdbc:h2:mem:asyncQuery;DB_CLOSE_DELAY=-1");
+		hikariConfig.setMaximumPoolSize(1);
+		hikariDataSource = new HikariDataSource(hikariConfig);
+	}
+
+	@AfterClass
+	public static void closeDataSource() {
+		hikariDataSource.close();
+	}
+
+	@Test
+	public void returnsTheRows() throws Exception {
+		CompletableFuture<List<Long>> future = toolBox.getListAsync("one", "SELECT 1", new Object[] {},
+				hikariDataSource, LONG_GETTER);
+
+		assertEquals(Collections.singletonList(1L), future.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void cancellingAFinishedQueryDoesNotAffectTheNextOne() throws Exception {
+		CompletableFuture<List<Long>> first = toolBox.getListAsync("first", "SELECT 1", new Object[] {},
+				hikariDataSource, LONG_GETTER);
+		assertEquals(Collections.singletonList(1L), first.get(10, TimeUnit.SECONDS));
+		CompletableFuture<List<Long>> second = toolBox.getListAsync("second",
+				"SELECT COUNT(*) FROM SYSTEM_RANGE(1, 200000)", new Object[] {}, hikariDataSource, LONG_GETTER);
+
+		assertFalse(first.cancel(false));
+
+		assertEquals(Collections.singletonList(200000L), second.get(30, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void timeoutFailsTheFutureAndFreesTheConnection() throws Exception {
+		// Ten billion joined rows, far longer than the timeout
+		CompletableFuture<List<Long>> future = toolBox.getListAsync("slow",
+				"SELECT SUM(A.X + B.X) FROM SYSTEM_RANGE(1, 100000) A, SYSTEM_RANGE(1, 100000) B", new Object[] {},
+				hikariDataSource, 200, TimeUnit.MILLISECONDS, LONG_GETTER);
+
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected the query to time out");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+
+		// The cancelled statement gives the only connection back to the pool
+		assertEquals(Collections.singletonList(1L),
+				toolBox.getListAsync("afterTimeout", "SELECT 1", new Object[] {}, hikariDataSource, LONG_GETTER)
+						.get(30, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void queriesCancelledBeforeTheyStartGiveTheirQueueSlotBack() throws Exception {
+		// One thread, so queued tasks stay unstarted while the first one blocks
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		AsyncQueryExecutor asyncQueryExecutor = new AsyncQueryExecutor(1, "queueSlots", executorService);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			CompletableFuture<String> blocking = asyncQueryExecutor.submit("blocking", 0, TimeUnit.SECONDS,
+					new AsyncQueryExecutor.QueryTask<String>() {
+						@Override
+						public String run(AsyncQueryExecutor.StatementGuard statementGuard) {
+							try {
+								release.await();
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+							return "blocking";
+						}
+					});
+			for (int index = 0; index < 3 * AsyncQueryExecutor.QUEUED_QUERIES_PER_CONNECTION; index++) {
+				CompletableFuture<String> queued = asyncQueryExecutor.submit("queued", 0, TimeUnit.SECONDS,
+						constantTask("queued"));
+				assertFalse(queued.isCompletedExceptionally());
+				assertTrue(queued.cancel(false));
+			}
+			CompletableFuture<String> last = asyncQueryExecutor.submit("last", 0, TimeUnit.SECONDS,
+					constantTask("last"));
+			release.countDown();
+
+			assertEquals("blocking", blocking.get(10, TimeUnit.SECONDS));
+			assertEquals("last", last.get(10, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+			executorService.shutdownNow();
+		}
+	}
+
+	private static AsyncQueryExecutor.QueryTask<String> constantTask(String value) {
+		return new AsyncQueryExecutor.QueryTask<String>() {
+			@Override
+			public String run(AsyncQueryExecutor.StatementGuard statementGuard) {
+				return value;
+			}
+		};
+	}
+}
@@ -0,0 +1,176 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dieharddev.toolbox.ToolBox.ListGetter;
+import com.dieharddev.toolbox.ToolBox.ListSetter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class BatchUpdateTest {
+	private static final ListSetter<Integer> ID_SETTER = new ListSetter<Integer>() {
+		@Override
+		public void setValues(PreparedStatement preparedStatement, Integer value) throws SQLException {
+			preparedStatement.setInt(1, value);
+			preparedStatement.setString(2, "row-" + value);
+		}
+	};
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+	private HikariDataSource hikariDataSource;
+
+	@Before
+	public void createTable() throws SQLException {
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setJdbcUrl("jdbc:h2:mem:batchUpdate;DB_CLOSE_DELAY=-1");
+		hikariConfig.setMaximumPoolSize(1);
+		hikariDataSource = new HikariDataSource(hikariConfig);
+		try (Connection connection = hikariDataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE ITEMS (ID INT PRIMARY KEY, NAME VARCHAR(20))");
+		}
+	}
+
+	@After
+	public void dropTable() throws SQLException {
+		try (Connection connection = hikariDataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE ITEMS");
+		}
+		hikariDataSource.close();
+	}
+
+	@Test
+	public void insertsInBatchesAndCommits() {
+		BatchUpdateResult batchUpdateResult = toolBox.batchUpdate("insertItems",
+				"INSERT INTO ITEMS (ID, NAME) VALUES (?, ?)", IntStream.rangeClosed(1, 2500).boxed().iterator(),
+				hikariDataSource, 1000, 2000, ID_SETTER);
+
+		assertEquals(2500, batchUpdateResult.getRowCount());
+		assertEquals(3, batchUpdateResult.getBatchCount());
+		assertEquals(2, batchUpdateResult.getCommitCount());
+		assertEquals(2500, batchUpdateResult.getUpdateCount());
+		assertEquals(0, batchUpdateResult.getUnknownUpdateCount());
+		assertEquals(2500, countItems());
+	}
+
+	@Test
+	public void closesTheRowStream() {
+		AtomicBoolean closed = new AtomicBoolean();
+		Stream<Integer> rows = IntStream.rangeClosed(1, 10).boxed().onClose(new Runnable() {
+			@Override
+			public void run() {
+				closed.set(true);
+			}
+		});
+
+		toolBox.batchUpdate("insertItems", "INSERT INTO ITEMS (ID, NAME) VALUES (?, ?)", rows, hikariDataSource,
+				ID_SETTER);
+
+		assertTrue(closed.get());
+		assertEquals(10, countItems());
+	}
+
+	@Test
+	public void failureRollsBackUncommittedRows() {
+		try {
+			// The duplicate key fails the second batch, after the first one was committed
+			toolBox.batchUpdate("insertItems", "INSERT INTO ITEMS (ID, NAME) VALUES (?, ?)",
+					Stream.of(1, 2, 3, 4, 4, 5).iterator(), hikariDataSource, 3, 3, ID_SETTER);
+			fail("Expected the duplicate key to fail");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().startsWith("SQL batch update failed for insertItems"));
+		}
+
+		assertEquals(3, countItems());
+	}
+
+	@Test
+	public void countsSuccessNoInfoAsOneRow() {
+		// Reports every statement like PostgreSQL does for rewritten batches
+		HikariDataSource noInfoDataSource = new HikariDataSource(hikariDataSource) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				return withNoInfoBatches(super.getConnection());
+			}
+		};
+
+		try {
+			BatchUpdateResult batchUpdateResult = toolBox.batchUpdate("insertItems",
+					"INSERT INTO ITEMS (ID, NAME) VALUES (?, ?)", IntStream.rangeClosed(1, 5).boxed().iterator(),
+					noInfoDataSource, 2, 10, ID_SETTER);
+
+			assertEquals(5, batchUpdateResult.getUpdateCount());
+			assertEquals(5, batchUpdateResult.getUnknownUpdateCount());
+			assertEquals(5, countItems());
+		} finally {
+			noInfoDataSource.close();
+		}
+	}
+
+	private static Connection withNoInfoBatches(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(BatchUpdateTest.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						Object result = invokeOn(connection, method, args);
+						if (result instanceof PreparedStatement) {
+							return withNoInfoBatches((PreparedStatement) result);
+						}
+						return result;
+					}
+				});
+	}
+
+	private static PreparedStatement withNoInfoBatches(PreparedStatement preparedStatement) {
+		return (PreparedStatement) Proxy.newProxyInstance(BatchUpdateTest.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						Object result = invokeOn(preparedStatement, method, args);
+						if (method.getName().equals("executeBatch") == true) {
+							int[] updateCounts = (int[]) result;
+							Arrays.fill(updateCounts, Statement.SUCCESS_NO_INFO);
+						}
+						return result;
+					}
+				});
+	}
+
+	private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private long countItems() {
+		return toolBox.getList("countItems", "SELECT COUNT(*) FROM ITEMS", hikariDataSource, new ListGetter<Long>() {
+			@Override
+			public Long getValue(ResultSet resultSet) throws SQLException {
+				return resultSet.getLong(1);
+			}
+		}).get(0);
+	}
+}
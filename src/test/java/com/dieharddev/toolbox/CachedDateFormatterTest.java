@@ -0,0 +1,48 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CachedDateFormatterTest {
+	private final TimeZone defaultTimeZone = TimeZone.getDefault();
+
+	@After
+	public void restoreDefaultTimeZone() {
+		TimeZone.setDefault(defaultTimeZone);
+	}
+
+	@Test
+	public void formatsLikeSimpleDateFormat() {
+		CachedDateFormatter cachedDateFormatter = new CachedDateFormatter("yyyy-MM-dd_HH-mm-ss-SSS", true);
+		long epochMillis = 1_600_000_000_123L;
+
+		assertEquals(new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss-SSS").format(new Date(epochMillis)),
+				cachedDateFormatter.format(epochMillis));
+	}
+
+	@Test
+	public void followsDefaultTimeZoneChanges() {
+		CachedDateFormatter cachedDateFormatter = new CachedDateFormatter("HH:mm", true);
+		long epochMillis = 1_600_000_000_000L;
+
+		TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+		assertEquals("12:26", cachedDateFormatter.format(epochMillis));
+
+		TimeZone.setDefault(TimeZone.getTimeZone("GMT+02:00"));
+		assertEquals("14:26", cachedDateFormatter.format(epochMillis));
+	}
+
+	@Test
+	public void parsableDateStringRoundTrips() {
+		ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+		Date date = new Date(1_600_000_000_123L);
+
+		assertEquals(date, toolBox.parsableDateString(toolBox.getParsableDateString(date)));
+	}
+}
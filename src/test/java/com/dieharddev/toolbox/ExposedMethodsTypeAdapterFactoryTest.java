@@ -0,0 +1,82 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.dieharddev.toolbox.ToolBox.ToolBoxExposeMethod;
+import com.dieharddev.toolbox.ToolBox.ToolBoxExposedMethods;
+
+public class ExposedMethodsTypeAdapterFactoryTest {
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@Test
+	public void listsWriteFieldsLikePlainGsonAndExposedGetters() {
+		Bean bean = new Bean();
+		bean.name = "a";
+		bean.counter = 3;
+
+		assertEquals("[{\"name\":\"a\",\"counter\":3,\"label\":\"label-a\",\"missing\":null}]",
+				toolBox.toJson(Collections.singletonList(bean)));
+	}
+
+	@Test
+	public void listsLeaveOutNullFields() {
+		assertEquals("[{\"counter\":0,\"label\":\"label-null\",\"missing\":null},null]",
+				toolBox.toJson(Arrays.asList(new Bean(), null)));
+	}
+
+	@Test
+	public void exposedGetterReplacesFieldInPlace() {
+		assertEquals("[{\"value\":\"exposed\",\"other\":1}]",
+				toolBox.toJson(Collections.singletonList(new OverridingBean())));
+	}
+
+	@Test
+	public void beansOutsideOfListsUseTheRegularSettings() {
+		Bean bean = new Bean();
+		bean.name = "a";
+		bean.counter = 3;
+		Holder holder = new Holder();
+		holder.bean = new Bean();
+
+		assertEquals("{\"name\":\"a\"}", toolBox.toJson(bean));
+		assertEquals("{\n  \"name\": \"a\"\n}", toolBox.toPrettyJson(bean));
+		assertEquals("{\"bean\":{\"name\":null},\"other\":null}", toolBox.toJson(holder));
+	}
+
+	static class Bean implements ToolBoxExposedMethods {
+		String name;
+		volatile int counter;
+		transient String skipped = "skipped";
+		static String shared = "shared";
+
+		@ToolBoxExposeMethod
+		public String getLabel() {
+			return "label-" + name;
+		}
+
+		@ToolBoxExposeMethod
+		public String getMissing() {
+			return null;
+		}
+	}
+
+	static class OverridingBean implements ToolBoxExposedMethods {
+		String value = "field";
+		int other = 1;
+
+		@ToolBoxExposeMethod
+		public String getValue() {
+			return "exposed";
+		}
+	}
+
+	static class Holder {
+		Bean bean;
+		String other;
+	}
+}
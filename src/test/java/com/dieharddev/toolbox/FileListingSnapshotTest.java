@@ -0,0 +1,72 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileListingSnapshotTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@Test
+	public void reportsAddedModifiedAndDeletedFiles() throws IOException {
+		File directory = temporaryFolder.newFolder("listed");
+		File persistenceDirectory = temporaryFolder.newFolder("state");
+		File kept = write(new File(directory, "kept.txt"), "kept");
+		File changed = write(new File(directory, "changed.txt"), "before");
+		File removed = write(new File(directory, "removed.txt"), "removed");
+
+		FileListingChanges firstChanges = getChanges(directory, persistenceDirectory);
+		assertFalse(firstChanges.isPreviousSnapshotFound());
+		assertEquals(3, firstChanges.getAdded().size());
+
+		write(changed, "after, and longer");
+		assertTrue(removed.delete());
+		File added = write(new File(directory, "added.txt"), "added");
+		FileListingChanges secondChanges = getChanges(directory, persistenceDirectory);
+
+		assertTrue(secondChanges.isPreviousSnapshotFound());
+		assertEquals(Collections.singletonList(added.toPath()), secondChanges.getAdded());
+		assertEquals(Collections.singletonList(changed.toPath()), secondChanges.getModified());
+		assertEquals(Collections.singletonList(removed.toPath()), secondChanges.getDeleted());
+		assertEquals(1, secondChanges.getUnchangedCount());
+		assertTrue(kept.exists());
+	}
+
+	@Test
+	public void ignoresItsOwnFilesInsideTheListedDirectory() throws IOException {
+		File directory = temporaryFolder.newFolder("listed");
+		File persistenceDirectory = new File(directory, "state");
+		write(new File(directory, "data.txt"), "data");
+
+		assertEquals(1, getChanges(directory, persistenceDirectory).getAdded().size());
+		FileListingChanges secondChanges = getChanges(directory, persistenceDirectory);
+
+		assertFalse(secondChanges.hasChanges());
+		assertEquals(1, secondChanges.getUnchangedCount());
+		assertEquals(Arrays.asList("listing.snapshot"), Arrays.asList(persistenceDirectory.list()));
+	}
+
+	private FileListingChanges getChanges(File directory, File persistenceDirectory) {
+		return toolBox.getFileListingChanges(directory, FileListingQuery.builder().build(), persistenceDirectory,
+				"listing", true);
+	}
+
+	private static File write(File file, String content) throws IOException {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,40 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileListingUtilsTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@Test
+	public void listsFilesBeforeSubdirectories() throws IOException {
+		File root = temporaryFolder.getRoot();
+		temporaryFolder.newFolder("a");
+		File nested = temporaryFolder.newFile("a/nested.txt");
+		File top = temporaryFolder.newFile("top.txt");
+		temporaryFolder.newFile("ignored.log");
+
+		List<File> files = toolBox.listFilesFilesFirstOrder(root, ".*\\.txt");
+
+		assertEquals(Arrays.asList(top.getAbsoluteFile(), nested.getAbsoluteFile()), files);
+	}
+
+	@Test
+	public void missingDirectoryHasNoFiles() {
+		File missing = new File(temporaryFolder.getRoot(), "missing");
+
+		assertTrue(toolBox.listFilesFilesFirstOrder(missing, ".*").isEmpty());
+	}
+}
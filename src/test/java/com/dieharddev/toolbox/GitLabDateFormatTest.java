@@ -0,0 +1,48 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class GitLabDateFormatTest {
+	private final TimeZone defaultTimeZone = TimeZone.getDefault();
+
+	@After
+	public void restoreDefaultTimeZone() {
+		TimeZone.setDefault(defaultTimeZone);
+	}
+
+	@Test
+	public void formatsLikeSimpleDateFormat() {
+		long epochMillis = 1_469_633_440_864L;
+
+		assertEquals(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX", Locale.US).format(new Date(epochMillis)),
+				GitLabDateFormat.format(epochMillis));
+	}
+
+	@Test
+	public void followsDefaultTimeZoneChanges() {
+		long epochMillis = 1_469_633_440_864L;
+
+		TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+		assertEquals("2016-07-27T15:30:40.864Z", GitLabDateFormat.format(epochMillis));
+
+		TimeZone.setDefault(TimeZone.getTimeZone("GMT-05:00"));
+		assertEquals("2016-07-27T10:30:40.864-05", GitLabDateFormat.format(epochMillis));
+	}
+
+	@Test
+	public void parsesWhatItFormats() {
+		long epochMillis = 1_469_633_440_864L;
+		TimeZone.setDefault(TimeZone.getTimeZone("GMT+05:30"));
+
+		assertEquals(epochMillis, GitLabDateFormat.parseEpochMillis(GitLabDateFormat.format(epochMillis)));
+		assertEquals(epochMillis, GitLabDateFormat.parseEpochMillis("2016-07-27T15:30:40.864Z"));
+	}
+}
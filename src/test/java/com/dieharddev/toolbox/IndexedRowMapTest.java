@@ -0,0 +1,93 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class IndexedRowMapTest {
+	private static HikariDataSource hikariDataSource;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@BeforeClass
+	public static void createDataSource() {
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setJdbcUrl("jdbc:h2:mem:indexedRowMap;DB_CLOSE_DELAY=-1");
+		hikariConfig.setMaximumPoolSize(1);
+		hikariDataSource = new HikariDataSource(hikariConfig);
+	}
+
+	@AfterClass
+	public static void closeDataSource() {
+		hikariDataSource.close();
+	}
+
+	@Test
+	public void rowsReadLikeHashMaps() {
+		Map<String, Object> row = queryRow();
+
+		Map<String, Object> expected = new HashMap<String, Object>();
+		expected.put("ID", 1);
+		expected.put("NAME", "one");
+		assertEquals(expected, row);
+		assertEquals(expected.hashCode(), row.hashCode());
+	}
+
+	@Test
+	public void rowsCanBeEnriched() {
+		Map<String, Object> row = queryRow();
+
+		row.put("NAME", "renamed");
+		row.put("EXTRA", "added");
+
+		assertEquals("renamed", row.get("NAME"));
+		assertEquals("added", row.get("EXTRA"));
+		assertEquals(3, row.size());
+	}
+
+	@Test
+	public void columnsCanBeRemoved() {
+		Map<String, Object> row = queryRow();
+
+		assertEquals("one", row.remove("NAME"));
+
+		assertFalse(row.containsKey("NAME"));
+		assertNull(((IndexedRowMap) row).get(1));
+		assertEquals(1, row.size());
+	}
+
+	@Test
+	public void entryIteratorCanRemove() {
+		Map<String, Object> row = queryRow();
+
+		Iterator<Map.Entry<String, Object>> entries = row.entrySet().iterator();
+		while (entries.hasNext() == true) {
+			if (entries.next().getKey().equals("ID") == true) {
+				entries.remove();
+			}
+		}
+
+		assertEquals(1, row.size());
+		assertTrue(row.containsKey("NAME"));
+	}
+
+	private Map<String, Object> queryRow() {
+		List<Map<String, Object>> rows = toolBox.queryForList("row", "SELECT 1 AS ID, 'one' AS NAME",
+				hikariDataSource);
+		assertEquals(1, rows.size());
+		return rows.get(0);
+	}
+}
@@ -0,0 +1,110 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+	@Test
+	public void percentilesAreWithinTheBucketPrecision() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		Random random = new Random(1);
+		long[] values = new long[100_000];
+		for (int index = 0; index < values.length; index++) {
+			// Spread over nine orders of magnitude
+			values[index] = (long) Math.pow(10, random.nextDouble() * 9);
+			latencyHistogram.record(values[index]);
+		}
+		Arrays.sort(values);
+
+		for (double percentile : new double[] { 50, 90, 99, 99.9 }) {
+			long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+			long reported = latencyHistogram.getValueAtPercentile(percentile);
+
+			assertTrue(percentile + ": " + reported + " < " + exact, reported >= exact);
+			assertTrue(percentile + ": " + reported + " vs " + exact, reported <= exact * 1.032 + 1);
+		}
+		assertEquals(values.length, latencyHistogram.getCount());
+		assertEquals(values[values.length - 1], latencyHistogram.getMaximumNanos());
+	}
+
+	@Test
+	public void smallValuesAreExact() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		for (long nanos = 0; nanos < 32; nanos++) {
+			latencyHistogram.record(nanos);
+		}
+
+		assertEquals(15, latencyHistogram.getValueAtPercentile(50));
+		assertEquals(31, latencyHistogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void bucketsCoverTheWholeRange() {
+		for (long nanos : new long[] { 0, 31, 32, 33, 63, 64, 1_000_000, Long.MAX_VALUE }) {
+			int index = LatencyHistogram.bucketIndex(nanos);
+
+			assertTrue(String.valueOf(nanos), LatencyHistogram.bucketUpperBound(index) >= nanos);
+			if (index > 0) {
+				assertTrue(String.valueOf(nanos), LatencyHistogram.bucketUpperBound(index - 1) < nanos);
+			}
+		}
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		latencyHistogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, latencyHistogram.getValueAtPercentile(99.9));
+	}
+
+	@Test
+	public void countsConcurrentRecordings() throws InterruptedException {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		for (int task = 0; task < 4; task++) {
+			executorService.execute(new Runnable() {
+				@Override
+				public void run() {
+					for (int index = 0; index < 100_000; index++) {
+						latencyHistogram.record(1000);
+					}
+				}
+			});
+		}
+		executorService.shutdown();
+		assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(400_000, latencyHistogram.getCount());
+		assertEquals(400_000, latencyHistogram.getSnapshot().getCount());
+		assertEquals(400_000_000L, latencyHistogram.getTotalNanos());
+	}
+
+	@Test
+	public void resetForgetsEverything() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		latencyHistogram.record(5000);
+
+		latencyHistogram.reset();
+
+		assertEquals(0, latencyHistogram.getCount());
+		assertEquals(0, latencyHistogram.getValueAtPercentile(50));
+		assertEquals(0, latencyHistogram.getSnapshot().getCount());
+	}
+
+	@Test
+	public void timeItDoesNotCreateATimer() {
+		ToolBox.ToolBoxInstance.get().timeIt("oneOffRunnable", new Runnable() {
+			@Override
+			public void run() {
+				// Nothing to do
+			}
+		});
+
+		assertFalse(ToolBoxMetrics.getSnapshot().getTimers().containsKey("oneOffRunnable"));
+	}
+}
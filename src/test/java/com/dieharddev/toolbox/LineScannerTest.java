@@ -0,0 +1,110 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LineScannerTest {
+	private static final String[] TEXTS = { "", "a", "a\n", "\n", "\n\n", "a\nb", "a\r\nb\r\n", "a\rb\n", "\r\n\r",
+			" \n\t\nx \n", "a\n\r\nb" };
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@Test
+	public void splitsLikeTheRegularExpression() {
+		for (String text : TEXTS) {
+			String[] expected = text.split("\\r?\\n", -1);
+
+			assertArrayEquals(quoted(text), expected, LineScanner.split(text));
+			assertArrayEquals(quoted(text), expected, toolBox.getLines(text));
+			assertEquals(quoted(text), Arrays.asList(expected), LineScanner.splitToList(text));
+			assertEquals(quoted(text), Arrays.asList(expected), toolBox.toLinesList(text));
+			assertEquals(quoted(text), Arrays.asList(expected),
+					toolBox.streamLines(text).collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void nonEmptyLinesSkipBlankLinesLikeTrim() {
+		for (String text : TEXTS) {
+			List<String> expected = new ArrayList<String>();
+			for (String line : text.split("\\r?\\n", -1)) {
+				if (line.trim().equals("") == false) {
+					expected.add(line);
+				}
+			}
+
+			assertEquals(quoted(text), expected, Arrays.asList(toolBox.getNonEmptyLines(text)));
+			assertEquals(quoted(text), String.join("\n", expected), toolBox.removeEmptyLines(text));
+		}
+	}
+
+	@Test
+	public void readerLinesDropTheEmptyLineAfterTheLastBreak() {
+		for (String text : TEXTS) {
+			// BufferedReader also splits on a lone "\r", LineScanner does not
+			if (text.replace("\r\n", "").indexOf('\r') >= 0) {
+				continue;
+			}
+			List<String> expected = new BufferedReader(new StringReader(text)).lines().collect(Collectors.toList());
+
+			try (Stream<String> lines = LineScanner.lines(new StringReader(text))) {
+				assertEquals(quoted(text), expected, lines.collect(Collectors.toList()));
+			}
+		}
+	}
+
+	@Test
+	public void readsFileLinesLongerThanTheBuffer() throws IOException {
+		File file = temporaryFolder.newFile();
+		StringBuilder longLine = new StringBuilder();
+		for (int index = 0; index < 3 * ToolBox.FILE_BUFFER_SIZE; index++) {
+			longLine.append((char) ('a' + (index % 26)));
+		}
+		Files.write(file.toPath(), ("first\r\n" + longLine + "\nlast\n").getBytes(StandardCharsets.UTF_8));
+
+		try (Stream<String> lines = toolBox.streamFileLines(file, StandardCharsets.UTF_8)) {
+			assertEquals(Arrays.asList("first", longLine.toString(), "last"), lines.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void writeLinesToFileJoinsWithLineFeeds() throws IOException {
+		File file = temporaryFolder.newFile();
+
+		toolBox.writeLinesToFile(file, Arrays.asList("a", "", "b").iterator(), StandardCharsets.UTF_8);
+
+		assertEquals("a\n\nb", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void writeLinesToFileReplacesUnencodableCharacters() throws IOException {
+		File file = temporaryFolder.newFile();
+
+		toolBox.writeLinesToFile(file, Arrays.asList("bad \ud800", "good").iterator(), StandardCharsets.UTF_8);
+
+		assertEquals("bad ?\ngood", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	private static String quoted(String text) {
+		return "\"" + text.replace("\r", "\\r").replace("\n", "\\n") + "\"";
+	}
+}
@@ -0,0 +1,178 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LogitSinkTest {
+	// Rounded up to a ring buffer of four slots
+	private static final int CAPACITY = 4;
+
+	@Test
+	public void dropDiscardsAndReportsWhatDoesNotFit() throws Exception {
+		BlockedWriter blockedWriter = new BlockedWriter();
+		try (LogitSink logitSink = newLogitSink(blockedWriter, LogitOverflowPolicy.DROP, 0)) {
+			fillBehindBlockedWriter(logitSink, blockedWriter);
+			for (int index = 0; index < 6; index++) {
+				logitSink.log(LogitLevel.Info, "dropped-" + index);
+			}
+			assertEquals(6, logitSink.getDroppedCount());
+
+			blockedWriter.release.countDown();
+
+			assertTrue(logitSink.flush(10, TimeUnit.SECONDS));
+			assertEquals(5, logitSink.getWrittenCount());
+			assertEquals(0, logitSink.getFailedCount());
+			assertEquals(Arrays.asList("first", "queued-0", "queued-1", "queued-2", "queued-3",
+					"LogitSink: dropped 6 messages, the buffer was full"), blockedWriter.getMessages());
+		}
+	}
+
+	@Test
+	public void blockWaitsForRoomAndLosesNothing() throws Exception {
+		BlockedWriter blockedWriter = new BlockedWriter();
+		try (LogitSink logitSink = newLogitSink(blockedWriter, LogitOverflowPolicy.BLOCK, 0)) {
+			fillBehindBlockedWriter(logitSink, blockedWriter);
+			Thread caller = logInThread(logitSink, "waiting");
+			caller.join(200);
+			assertTrue(caller.isAlive());
+
+			blockedWriter.release.countDown();
+			caller.join(TimeUnit.SECONDS.toMillis(10));
+
+			assertFalse(caller.isAlive());
+			assertTrue(logitSink.flush(10, TimeUnit.SECONDS));
+			assertEquals(6, logitSink.getWrittenCount());
+			assertEquals(0, logitSink.getDroppedCount());
+			assertEquals(Arrays.asList("first", "queued-0", "queued-1", "queued-2", "queued-3", "waiting"),
+					blockedWriter.getMessages());
+		}
+	}
+
+	@Test
+	public void sampleKeepsOneInEverySampleRate() throws Exception {
+		BlockedWriter blockedWriter = new BlockedWriter();
+		try (LogitSink logitSink = newLogitSink(blockedWriter, LogitOverflowPolicy.SAMPLE, 3)) {
+			fillBehindBlockedWriter(logitSink, blockedWriter);
+			// The first two overflowing messages are dropped, the third waits for room
+			Thread caller = logInThread(logitSink, "sampled-0", "sampled-1", "sampled-2");
+			caller.join(200);
+			assertTrue(caller.isAlive());
+			assertEquals(2, logitSink.getDroppedCount());
+
+			blockedWriter.release.countDown();
+			caller.join(TimeUnit.SECONDS.toMillis(10));
+
+			assertFalse(caller.isAlive());
+			assertTrue(logitSink.flush(10, TimeUnit.SECONDS));
+			assertEquals(6, logitSink.getWrittenCount());
+			assertEquals(2, logitSink.getDroppedCount());
+			List<String> messages = blockedWriter.getMessages();
+			assertTrue(messages.contains("sampled-2"));
+			assertFalse(messages.contains("sampled-0"));
+			assertTrue(messages.contains("LogitSink: dropped 2 messages, the buffer was full"));
+		}
+	}
+
+	@Test
+	public void closeWritesWhatIsBufferedAndClosesTheWriter() throws Exception {
+		BlockedWriter blockedWriter = new BlockedWriter();
+		LogitSink logitSink = newLogitSink(blockedWriter, LogitOverflowPolicy.BLOCK, 0);
+		fillBehindBlockedWriter(logitSink, blockedWriter);
+		blockedWriter.release.countDown();
+
+		logitSink.close();
+
+		assertTrue(blockedWriter.closed);
+		assertEquals(5, logitSink.getWrittenCount());
+		assertEquals(Arrays.asList("first", "queued-0", "queued-1", "queued-2", "queued-3"),
+				blockedWriter.getMessages());
+
+		// Written on the caller's thread once closed
+		logitSink.log(LogitLevel.Info, "after close");
+		assertEquals("after close", blockedWriter.getMessages().get(5));
+	}
+
+	private static LogitSink newLogitSink(LogitWriter logitWriter, LogitOverflowPolicy overflowPolicy,
+			int sampleRate) {
+		return LogitSink.builder() //
+				.logitWriter(logitWriter) //
+				.overflowPolicy(overflowPolicy) //
+				.capacity(CAPACITY) //
+				.sampleRate(sampleRate) //
+				.build();
+	}
+
+	// Leaves the writer thread stuck on "first" and the buffer full
+	private static void fillBehindBlockedWriter(LogitSink logitSink, BlockedWriter blockedWriter)
+			throws InterruptedException {
+		logitSink.log(LogitLevel.Info, "first");
+		assertTrue(blockedWriter.writing.await(10, TimeUnit.SECONDS));
+		for (int index = 0; index < CAPACITY; index++) {
+			logitSink.log(LogitLevel.Info, "queued-" + index);
+		}
+		assertEquals(0, logitSink.getDroppedCount());
+	}
+
+	private static Thread logInThread(LogitSink logitSink, String... messages) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (String message : messages) {
+					logitSink.log(LogitLevel.Info, message);
+				}
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 *
+	 * Records the messages and blocks in the first write until released.
+	 *
+	 */
+	private static class BlockedWriter implements LogitWriter {
+		private final CountDownLatch writing = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<String> messages = new ArrayList<String>();
+		private volatile boolean closed;
+
+		@Override
+		public void write(LogitLevel logitLevel, String message) {
+			writing.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (messages) {
+				messages.add(message);
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+		List<String> getMessages() {
+			synchronized (messages) {
+				return new ArrayList<String>(messages);
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class LogitTest {
+	@After
+	public void removeLevels() {
+		Logit.setLevel("a", null);
+		Logit.setLevel("a.b", null);
+		Logit.setLevel(Tool.class, null);
+		ToolBox._logitLevel.remove();
+	}
+
+	@Test
+	public void categoriesInheritAlongTheirDots() {
+		Logit.setLevel("a", LogitLevel.Debug);
+		Logit.setLevel("a.b", LogitLevel.Error);
+		Logit logit = Logit.getLogit("a.b.C");
+
+		assertEquals(LogitLevel.Error, logit.getLevel());
+		assertTrue(logit.isErrorEnabled());
+		assertFalse(logit.isInfoEnabled());
+		assertFalse(logit.isDebugEnabled());
+		assertEquals(LogitLevel.Debug, Logit.getLogit("a.x.C").getLevel());
+		assertEquals(Logit.getRootLevel(), Logit.getLogit("ab.C").getLevel());
+	}
+
+	@Test
+	public void setLevelInvalidatesTheCachedLevel() {
+		Logit.setLevel("a", LogitLevel.Debug);
+		Logit.setLevel("a.b", LogitLevel.Error);
+		Logit logit = Logit.getLogit("a.b.C");
+		assertFalse(logit.isDebugEnabled());
+
+		Logit.setLevel("a.b", null);
+
+		assertSame(logit, Logit.getLogit("a.b.C"));
+		assertEquals(LogitLevel.Debug, logit.getLevel());
+		assertTrue(logit.isDebugEnabled());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rootLevelCanNotBeRemoved() {
+		Logit.setRootLevel(null);
+	}
+
+	@Test
+	public void toolBoxUsesTheLevelOfItsClass() {
+		Tool tool = new Tool();
+
+		Logit.setLevel(Tool.class, LogitLevel.Info);
+		assertTrue(tool.isLogitEnabled(LogitLevel.Info));
+		assertFalse(tool.isLogitEnabled(LogitLevel.Debug));
+
+		Logit.setLevel(Tool.class, LogitLevel.Debug);
+		assertTrue(tool.isLogitEnabled(LogitLevel.Debug));
+
+		// The thread's own level wins over the category
+		tool.setLogitLevel(LogitLevel.Error);
+		assertFalse(tool.isLogitEnabled(LogitLevel.Info));
+		assertEquals(LogitLevel.Error, tool.getLogitLevel());
+	}
+
+	@Test
+	public void logitDebugOnlyWritesWhenDebugIsEnabled() {
+		RecordingWriter recordingWriter = new RecordingWriter();
+		LogitSink.install(LogitSink.builder().logitWriter(recordingWriter).build());
+		try {
+			Tool tool = new Tool();
+			Logit.setLevel(Tool.class, LogitLevel.Error);
+			tool.logitDebug("filtered");
+			tool.logitDebug("filtered {}", 1);
+			tool.logitError("error");
+
+			Logit.setLevel(Tool.class, LogitLevel.Debug);
+			tool.logitDebug("debug {}", 2);
+
+			assertTrue(tool.flushLogit(10, TimeUnit.SECONDS));
+			assertEquals(Arrays.asList("error", "debug 2"), recordingWriter.getMessages());
+		} finally {
+			LogitSink.install(LogitSink.builder().build());
+		}
+	}
+
+	private static class Tool implements ToolBox {
+	}
+
+	private static class RecordingWriter implements LogitWriter {
+		private final List<String> messages = new ArrayList<String>();
+
+		@Override
+		public synchronized void write(LogitLevel logitLevel, String message) {
+			messages.add(message);
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		synchronized List<String> getMessages() {
+			return new ArrayList<String>(messages);
+		}
+	}
+}
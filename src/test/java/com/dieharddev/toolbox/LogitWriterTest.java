@@ -0,0 +1,75 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogitWriterTest {
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void rollingFileReplacesUnencodableCharacters() throws IOException {
+		File file = new File(temporaryFolder.getRoot(), "logs/app.log");
+
+		try (LogitWriter logitWriter = LogitWriter.rollingFile(file, 1024 * 1024, 1)) {
+			logitWriter.write(LogitLevel.Info, "bad \ud800");
+			logitWriter.flush();
+			logitWriter.write(LogitLevel.Info, "good");
+		}
+
+		assertEquals("bad ?" + LINE_SEPARATOR + "good" + LINE_SEPARATOR, read(file));
+	}
+
+	@Test
+	public void rollingFileReopensAfterAFailedFlush() throws IOException {
+		File file = new File(temporaryFolder.getRoot(), "app.log");
+
+		try (LogitWriter logitWriter = LogitWriter.rollingFile(file, 1024 * 1024, 1)) {
+			logitWriter.write(LogitLevel.Info, "lost");
+			// Interrupted channel I/O closes the channel for good
+			Thread.currentThread().interrupt();
+			try {
+				logitWriter.flush();
+				fail("Expected the interrupted flush to fail");
+			} catch (IOException e) {
+				// Expected
+			} finally {
+				Thread.interrupted();
+			}
+
+			logitWriter.write(LogitLevel.Info, "written");
+			logitWriter.flush();
+		}
+
+		assertEquals("written" + LINE_SEPARATOR, read(file));
+	}
+
+	@Test
+	public void rollingFileKeepsBackups() throws IOException {
+		File file = new File(temporaryFolder.getRoot(), "roll.log");
+
+		try (LogitWriter logitWriter = LogitWriter.rollingFile(file, 5, 1)) {
+			logitWriter.write(LogitLevel.Info, "first");
+			logitWriter.write(LogitLevel.Info, "second");
+			logitWriter.write(LogitLevel.Info, "third");
+		}
+
+		assertEquals("third" + LINE_SEPARATOR, read(file));
+		assertEquals("second" + LINE_SEPARATOR, read(new File(temporaryFolder.getRoot(), "roll.log.1")));
+	}
+
+	private static String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,57 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dieharddev.toolbox.ToolBox.ListGetter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class NamedQueryTest {
+	private static final ListGetter<Integer> INT_GETTER = new ListGetter<Integer>() {
+		@Override
+		public Integer getValue(ResultSet resultSet) throws SQLException {
+			return resultSet.getInt(1);
+		}
+	};
+
+	private static HikariDataSource hikariDataSource;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@BeforeClass
+	public static void createDataSource() {
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setJdbcUrl("jdbc:h2:mem:namedQuery;DB_CLOSE_DELAY=-1");
+		hikariConfig.setMaximumPoolSize(1);
+		hikariDataSource = new HikariDataSource(hikariConfig);
+	}
+
+	@AfterClass
+	public static void closeDataSource() {
+		hikariDataSource.close();
+	}
+
+	@Test
+	public void getListAcceptsANullQueryName() {
+		assertEquals(Collections.singletonList(1),
+				toolBox.getList(null, "SELECT 1", new Object[] {}, hikariDataSource, INT_GETTER));
+	}
+
+	@Test
+	public void registeredQueriesAreTimed() {
+		NamedQuery namedQuery = toolBox.registerNamedQuery("timedQuery", "SELECT 2");
+
+		toolBox.getList("timedQuery", "SELECT 2", new Object[] {}, hikariDataSource, INT_GETTER);
+
+		assertEquals(1, namedQuery.getExecutionCount());
+		assertEquals(0, namedQuery.getFailureCount());
+	}
+}
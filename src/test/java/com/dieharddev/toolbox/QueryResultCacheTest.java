@@ -0,0 +1,103 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+	@Test
+	public void cachesResultsUpToTheWholeMaximumWeight() {
+		QueryResultCache queryResultCache = QueryResultCache.register("largeResult", 1, TimeUnit.MINUTES, 1_000_000,
+				0);
+		// About 600 KB, more than a quarter of the maximum weight
+		List<String> rows = new ArrayList<String>();
+		for (int index = 0; index < 5000; index++) {
+			rows.add(String.format("%040d", index));
+		}
+		AtomicInteger loadCount = new AtomicInteger();
+		Callable<List<String>> loader = countingLoader(rows, loadCount);
+
+		queryResultCache.get("SELECT LARGE", new Object[] {}, loader);
+		queryResultCache.get("SELECT LARGE", new Object[] {}, loader);
+
+		assertEquals(1, loadCount.get());
+		assertEquals(1, queryResultCache.getSize());
+	}
+
+	@Test
+	public void registerRejectsDifferentSettings() {
+		QueryResultCache queryResultCache = QueryResultCache.register("settings", 1, TimeUnit.MINUTES, 1000, 0);
+
+		assertSame(queryResultCache, QueryResultCache.register("settings", 60, TimeUnit.SECONDS, 1000, 0));
+		try {
+			QueryResultCache.register("settings", 2, TimeUnit.MINUTES, 1000, 0);
+			fail("Expected a different TTL to be rejected");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void doesNotKeepTheLoader() {
+		QueryResultCache queryResultCache = QueryResultCache.register("loaderRelease", 1, TimeUnit.MINUTES, 100_000,
+				0);
+		Callable<List<String>> loader = countingLoader(Collections.singletonList("row"), new AtomicInteger());
+		WeakReference<Callable<List<String>>> loaderReference = new WeakReference<Callable<List<String>>>(loader);
+
+		queryResultCache.get("SELECT ROW", new Object[] {}, loader);
+		loader = null;
+
+		for (int attempt = 0; (attempt < 10) && (loaderReference.get() != null); attempt++) {
+			System.gc();
+		}
+		assertNull(loaderReference.get());
+		assertEquals(1, queryResultCache.getSize());
+	}
+
+	@Test
+	public void refreshesStaleEntriesInTheBackground() throws InterruptedException {
+		QueryResultCache queryResultCache = QueryResultCache.register("refresh", 60_000, TimeUnit.MILLISECONDS,
+				100_000, 200);
+		AtomicInteger loadCount = new AtomicInteger();
+		Callable<List<Integer>> loader = new Callable<List<Integer>>() {
+			@Override
+			public List<Integer> call() {
+				return Collections.singletonList(loadCount.incrementAndGet());
+			}
+		};
+
+		assertEquals(Collections.singletonList(1), queryResultCache.get("SELECT COUNTER", new Object[] {}, loader));
+		Thread.sleep(250);
+		// Stale: the old rows come back and the reload runs in the background
+		assertEquals(Collections.singletonList(1), queryResultCache.get("SELECT COUNTER", new Object[] {}, loader));
+		long deadline = System.currentTimeMillis() + 5000;
+		List<Integer> rows;
+		do {
+			Thread.sleep(5);
+			rows = queryResultCache.get("SELECT COUNTER", new Object[] {}, loader);
+		} while ((rows.get(0) == 1) && (System.currentTimeMillis() < deadline));
+
+		assertEquals(Integer.valueOf(2), rows.get(0));
+	}
+
+	private static <T> Callable<List<T>> countingLoader(List<T> rows, AtomicInteger loadCount) {
+		return new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				loadCount.incrementAndGet();
+				return rows;
+			}
+		};
+	}
+}
@@ -0,0 +1,131 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.dieharddev.toolbox.ToolBox.ScheduledExecutor;
+import com.dieharddev.toolbox.ToolBox.ScheduledExecutor.RejectionPolicy;
+
+public class ScheduledExecutorTest {
+	@Test
+	public void shutdownNowCancelsQueuedAndScheduledTasks() throws InterruptedException {
+		ScheduledExecutor scheduledExecutor = new ScheduledExecutor(1, "cancelTest");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		scheduledExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		Future<String> queued = scheduledExecutor.submit(new Callable<String>() {
+			@Override
+			public String call() {
+				return "never";
+			}
+		});
+		ScheduledFuture<?> scheduled = scheduledExecutor.schedule(new Runnable() {
+			@Override
+			public void run() {
+				// Never runs
+			}
+		}, 1, TimeUnit.HOURS);
+
+		scheduledExecutor.shutdownNow();
+
+		assertTrue(queued.isCancelled());
+		assertTrue(scheduled.isCancelled());
+		assertTrue(scheduledExecutor.isShutdown());
+	}
+
+	@Test
+	public void shutdownRemovesTheMetrics() {
+		ScheduledExecutor scheduledExecutor = new ScheduledExecutor(1, "metricsTest");
+		String metricNamePrefix = scheduledExecutor.getMetricNamePrefix();
+		assertTrue(ToolBoxMetrics.getSnapshot().getTimers().containsKey(metricNamePrefix + ".run"));
+		assertTrue(ToolBoxMetrics.getSnapshot().getGauges().containsKey(metricNamePrefix + ".queueDepth"));
+
+		assertTrue(scheduledExecutor.shutdown(10, TimeUnit.SECONDS));
+
+		ToolBoxMetrics.MetricsSnapshot metricsSnapshot = ToolBoxMetrics.getSnapshot();
+		assertFalse(metricsSnapshot.getTimers().containsKey(metricNamePrefix + ".run"));
+		assertFalse(metricsSnapshot.getTimers().containsKey(metricNamePrefix + ".queueWait"));
+		assertFalse(metricsSnapshot.getGauges().containsKey(metricNamePrefix + ".queueDepth"));
+		assertFalse(metricsSnapshot.getGauges().containsKey(metricNamePrefix + ".activeCount"));
+	}
+
+	@Test
+	public void executorsWithTheSamePrefixKeepSeparateMetrics() {
+		ScheduledExecutor first = new ScheduledExecutor(1, "sharedPrefix");
+		ScheduledExecutor second = new ScheduledExecutor(1, "sharedPrefix");
+		try {
+			assertEquals("sharedPrefix", first.getMetricNamePrefix());
+			assertNotEquals(first.getMetricNamePrefix(), second.getMetricNamePrefix());
+
+			first.shutdownNow();
+
+			assertTrue(ToolBoxMetrics.getSnapshot().getGauges()
+					.containsKey(second.getMetricNamePrefix() + ".queueDepth"));
+		} finally {
+			first.shutdownNow();
+			second.shutdownNow();
+		}
+	}
+
+	@Test
+	public void abortRejectsOnceTheQueueIsFull() throws InterruptedException {
+		ScheduledExecutor scheduledExecutor = new ScheduledExecutor(1, 1, RejectionPolicy.ABORT, "abortTest");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			scheduledExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					started.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			Runnable nothing = new Runnable() {
+				@Override
+				public void run() {
+					// Only fills the queue
+				}
+			};
+			scheduledExecutor.execute(nothing);
+			try {
+				scheduledExecutor.execute(nothing);
+				fail("Expected the full queue to reject the task");
+			} catch (RejectedExecutionException e) {
+				// Expected
+			}
+
+			assertEquals(1, scheduledExecutor.getMetrics().getRejectedCount());
+		} finally {
+			release.countDown();
+			scheduledExecutor.shutdown(10, TimeUnit.SECONDS);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dieharddev.toolbox.ToolBox.ListGetter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ *
+ * getStream and getIterator against a file based H2 database, so H2 keeps the
+ * table on disk and only the cursor can hold rows in memory.
+ *
+ */
+public class SqlStreamingTest {
+	private static final int ROW_COUNT = 2_000_000;
+
+	@ClassRule
+	public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private static HikariDataSource hikariDataSource;
+
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@BeforeClass
+	public static void createTable() throws SQLException {
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setJdbcUrl("jdbc:h2:file:" + temporaryFolder.getRoot().getAbsolutePath() + "/streaming");
+		hikariConfig.setMaximumPoolSize(2);
+		hikariDataSource = new HikariDataSource(hikariConfig);
+		try (Connection connection = hikariDataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE ROWS_TABLE AS SELECT X AS ID FROM SYSTEM_RANGE(1, " + ROW_COUNT + ")");
+		}
+	}
+
+	@AfterClass
+	public static void closeDataSource() {
+		hikariDataSource.close();
+	}
+
+	@Test
+	public void getStreamDoesNotRetainConsumedRows() {
+		// 2M rows of 1 KB each would need 2 GB if the stream buffered them
+		long rowCount = 0;
+		try (Stream<byte[]> stream = toolBox.getStream("streamAll", "SELECT ID FROM ROWS_TABLE", new Object[] {},
+				hikariDataSource, 1000, new ListGetter<byte[]>() {
+					@Override
+					public byte[] getValue(ResultSet resultSet) throws SQLException {
+						resultSet.getLong(1);
+						return new byte[1024];
+					}
+				})) {
+			Iterator<byte[]> rows = stream.iterator();
+			WeakReference<byte[]> firstRow = new WeakReference<byte[]>(rows.next());
+			rowCount++;
+			while ((rows.hasNext() == true) && (rowCount < ROW_COUNT / 2)) {
+				rows.next();
+				rowCount++;
+			}
+			assertCollected(firstRow);
+			while (rows.hasNext() == true) {
+				rows.next();
+				rowCount++;
+			}
+		}
+
+		assertEquals(ROW_COUNT, rowCount);
+		assertEquals(0, getActiveConnections());
+	}
+
+	@Test
+	public void getIteratorReleasesConnectionWhenClosedEarly() {
+		try (ResultSetIterator<Long> iterator = toolBox.getIterator("firstRows",
+				"SELECT ID FROM ROWS_TABLE WHERE ID <= ? ORDER BY ID", new Object[] { 10 }, hikariDataSource, 2,
+				new ListGetter<Long>() {
+					@Override
+					public Long getValue(ResultSet resultSet) throws SQLException {
+						return resultSet.getLong(1);
+					}
+				})) {
+			assertEquals(Long.valueOf(1), iterator.next());
+			assertEquals(Long.valueOf(2), iterator.next());
+			assertEquals(1, getActiveConnections());
+		}
+
+		assertEquals(0, getActiveConnections());
+	}
+
+	@Test
+	public void getIteratorReleasesConnectionWhenExhausted() {
+		ResultSetIterator<Long> iterator = toolBox.getIterator("fewRows", "SELECT ID FROM ROWS_TABLE WHERE ID <= 3",
+				new Object[] {}, hikariDataSource, 2, new ListGetter<Long>() {
+					@Override
+					public Long getValue(ResultSet resultSet) throws SQLException {
+						return resultSet.getLong(1);
+					}
+				});
+		int rowCount = 0;
+		while (iterator.hasNext() == true) {
+			iterator.next();
+			rowCount++;
+		}
+
+		assertEquals(3, rowCount);
+		assertEquals(0, getActiveConnections());
+	}
+
+	@Test
+	public void failingQueryReleasesConnection() {
+		try {
+			toolBox.getIterator("badQuery", "SELECT NO_SUCH_COLUMN FROM ROWS_TABLE", new Object[] {},
+					hikariDataSource, 2, new ListGetter<Long>() {
+						@Override
+						public Long getValue(ResultSet resultSet) throws SQLException {
+							return resultSet.getLong(1);
+						}
+					});
+			fail("Expected the query to fail");
+		} catch (RuntimeException e) {
+			assertEquals("SQL query failed for badQuery", e.getMessage());
+		}
+
+		assertEquals(0, getActiveConnections());
+	}
+
+	private static int getActiveConnections() {
+		return hikariDataSource.getHikariPoolMXBean().getActiveConnections();
+	}
+
+	private static void assertCollected(WeakReference<?> reference) {
+		for (int attempt = 0; (attempt < 10) && (reference.get() != null); attempt++) {
+			System.gc();
+		}
+		assertNull("The stream kept a consumed row", reference.get());
+	}
+}
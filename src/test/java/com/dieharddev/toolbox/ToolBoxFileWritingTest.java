@@ -0,0 +1,176 @@
+package com.dieharddev.toolbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ToolBoxFileWritingTest {
+	private final ToolBox toolBox = ToolBox.ToolBoxInstance.get();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void toPrettyJsonFileCreatesMissingParentDirectories() {
+		File file = new File(temporaryFolder.getRoot(), "out1/sub/x.json");
+
+		toolBox.toPrettyJsonFile(file, new Sample("value"));
+
+		assertEquals("value", toolBox.fromJsonFile(file, Sample.class).name);
+	}
+
+	@Test
+	public void newBufferedFileWriterReplacesUnencodableCharacters() throws IOException {
+		File file = temporaryFolder.newFile();
+
+		try (Writer writer = toolBox.newBufferedFileWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("bad \ud800 good");
+		}
+
+		assertEquals("bad ? good", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void newBufferedFileReaderReplacesMalformedInput() throws IOException {
+		File file = temporaryFolder.newFile();
+		Files.write(file.toPath(), new byte[] { 'a', (byte) 0xC3, '(', 'b' });
+
+		try (Reader reader = toolBox.newBufferedFileReader(file, StandardCharsets.UTF_8)) {
+			assertEquals("a\uFFFD(b", IOUtils.toString(reader));
+		}
+	}
+
+	@Test
+	public void fromJsonFileReadsInvalidBytesAsReplacementCharacter() throws IOException {
+		File file = temporaryFolder.newFile();
+		Files.write(file.toPath(), new byte[] { '{', '"', 'k', '"', ':', '"', (byte) 0xC3, '(', '"', '}' });
+
+		Map<?, ?> map = toolBox.fromJsonFile(file, Map.class);
+
+		assertTrue(map.get("k").toString().contains("\uFFFD"));
+	}
+
+	@Test
+	public void toPrettyJsonFileWritesLoneSurrogate() {
+		File file = new File(temporaryFolder.getRoot(), "surrogate.json");
+
+		toolBox.toPrettyJsonFile(file, new Sample("bad \ud800"));
+
+		assertEquals("bad ?", toolBox.fromJsonFile(file, Sample.class).name);
+	}
+
+	@Test
+	public void compressedWriterAndReaderReplaceBadCharacters() throws IOException {
+		File file = new File(temporaryFolder.getRoot(), "out2/x.txt.gz");
+
+		try (Writer writer = toolBox.newBufferedFileWriter(file, StandardCharsets.UTF_8,
+				FileCompression.BY_EXTENSION)) {
+			writer.write("bad \ud800 good");
+		}
+
+		try (Reader reader = toolBox.newBufferedFileReader(file, StandardCharsets.US_ASCII,
+				FileCompression.BY_EXTENSION)) {
+			assertEquals("bad ? good", IOUtils.toString(reader));
+		}
+		try (Writer writer = toolBox.newBufferedFileWriter(file, StandardCharsets.UTF_8,
+				FileCompression.BY_EXTENSION)) {
+			writer.write("\u00e9");
+		}
+		try (Reader reader = toolBox.newBufferedFileReader(file, StandardCharsets.US_ASCII,
+				FileCompression.BY_EXTENSION)) {
+			assertEquals("\uFFFD\uFFFD", IOUtils.toString(reader));
+		}
+	}
+
+	@Test
+	public void compressedOutputStreamClosesTheFileForABadLevel() throws IOException {
+		Path fileDescriptors = Paths.get("/proc/self/fd");
+		assumeTrue(Files.isDirectory(fileDescriptors));
+		File file = new File(temporaryFolder.getRoot(), "bad-level.txt.gz");
+
+		try {
+			toolBox.newCompressedFileOutputStream(file, FileCompression.builder().level(10).build());
+			fail("Expected the level to be rejected");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().startsWith("newCompressedFileOutputStream(): Could not open file"));
+		}
+
+		try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(fileDescriptors)) {
+			for (Path fileDescriptor : directoryStream) {
+				try {
+					assertFalse(Files.readSymbolicLink(fileDescriptor).equals(file.getAbsoluteFile().toPath()));
+				} catch (IOException e) {
+					// The descriptor of the directory stream itself may be gone already
+				}
+			}
+		}
+	}
+
+	@Test
+	public void copyFilesToWaitsForANonBlockingChannel() throws Exception {
+		byte[] content = new byte[1024 * 1024];
+		new Random(1).nextBytes(content);
+		File first = temporaryFolder.newFile();
+		File second = temporaryFolder.newFile();
+		Files.write(first.toPath(), content);
+		Files.write(second.toPath(), content);
+		Pipe pipe = Pipe.open();
+		// Far larger than the pipe buffer, so the sink is full most of the time
+		CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(new Supplier<byte[]>() {
+			@Override
+			public byte[] get() {
+				try (InputStream inputStream = Channels.newInputStream(pipe.source())) {
+					return IOUtils.toByteArray(inputStream);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+
+		try (Pipe.SinkChannel sinkChannel = pipe.sink()) {
+			sinkChannel.configureBlocking(false);
+			toolBox.copyFilesTo(sinkChannel, new byte[] { '|' }, Arrays.asList(first, second));
+		}
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		expected.write(content);
+		expected.write('|');
+		expected.write(content);
+		assertTrue(Arrays.equals(expected.toByteArray(), received.get(30, TimeUnit.SECONDS)));
+	}
+
+	static class Sample {
+		String name;
+
+		Sample(String name) {
+			this.name = name;
+		}
+	}
+}